@@ -0,0 +1,27 @@
+package com.pageobject.benchmark;
+
+import com.pageobject.component.AbstractPage;
+import com.pageobject.component.Page;
+
+/**
+ * Page validated by {@link BenchmarkPageValidation}.
+ */
+@Page
+public class BenchmarkPage extends AbstractPage {
+
+	private int value;
+
+	@Override
+	public boolean isValidPage() {
+		return Fixtures.ORDERS_TITLE.equals(browser.getTitle());
+	}
+
+	public int next() {
+		return ++value;
+	}
+
+	public BenchmarkPage navigateToNext() {
+		return navigateTo(BenchmarkPage.class);
+	}
+
+}
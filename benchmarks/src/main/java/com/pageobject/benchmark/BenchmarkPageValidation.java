@@ -0,0 +1,35 @@
+package com.pageobject.benchmark;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.pageobject.component.ValidPageAspect;
+import com.pageobject.controller.BrowserController;
+
+/**
+ * Applies {@link ValidPageAspect#validatePage(JoinPoint, com.pageobject.component.AbstractPage)}
+ * to every call of a {@link BenchmarkPage}. The pointcut of
+ * {@link ValidPageAspect} itself does not match any page.
+ */
+@Aspect
+public class BenchmarkPageValidation {
+
+	private final ValidPageAspect validPageAspect = new ValidPageAspect();
+
+	@Autowired
+	public void setBrowserController(BrowserController browser) {
+		validPageAspect.setBrowserController(browser);
+	}
+
+	public void setStrictValidation(boolean strictValidation) {
+		validPageAspect.setStrictValidation(strictValidation);
+	}
+
+	@Before("target(page)")
+	public void validatePage(JoinPoint joinPoint, BenchmarkPage page) {
+		validPageAspect.validatePage(joinPoint, page);
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.pageobject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.pageobject.controller.FakeWebDriver;
+import com.pageobject.controller.WebDriverBrowserImpl;
+
+/**
+ * Generated pages served by {@link FakeWebDriver}.
+ */
+public class Fixtures {
+
+	public static final String ORDERS_URL = "http://localhost/orders";
+	public static final String ORDERS_TITLE = "Orders";
+	public static final String TABLE_XPATH = "//table[@id='orders']";
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Returns a page with one table, cell values are
+	 * <code>r&lt;row&gt;c&lt;column&gt;</code>. Rows and cells carry them in
+	 * <code>value</code> attributes as well, so they are read the same way
+	 * by {@link com.pageobject.controller.BrowserController#getElementValue(String)}
+	 * and by table scripts.
+	 * @param rowCount number of rows
+	 * @param columnCount number of columns
+	 * @return page source
+	 */
+	public static String ordersPage(int rowCount, int columnCount) {
+		StringBuilder html = new StringBuilder();
+		html.append("<html><head><title>").append(ORDERS_TITLE).append("</title></head><body>");
+		html.append("<table id=\"orders\"><thead><tr>");
+		for (int c = 1; c <= columnCount; c++) {
+			html.append("<th>Column ").append(c).append("</th>");
+		}
+		html.append("</tr></thead><tbody>");
+		for (int r = 1; r <= rowCount; r++) {
+			html.append("<tr value=\"");
+			for (int c = 1; c <= columnCount; c++) {
+				html.append('r').append(r).append('c').append(c);
+			}
+			html.append("\">");
+			for (int c = 1; c <= columnCount; c++) {
+				html.append("<td value=\"r").append(r).append('c').append(c).append("\">");
+				html.append('r').append(r).append('c').append(c).append("</td>");
+			}
+			html.append("</tr>");
+		}
+		html.append("</tbody></table></body></html>");
+		return html.toString();
+	}
+
+	/**
+	 * Returns a browser showing the orders page.
+	 * @param rowCount number of rows
+	 * @param columnCount number of columns
+	 * @param latencyMicros delay of every command in microseconds
+	 * @return browser controller backed by a fake driver
+	 */
+	public static WebDriverBrowserImpl ordersBrowser(int rowCount, int columnCount, long latencyMicros) {
+		FakeWebDriver driver = new FakeWebDriver();
+		driver.addPage(ORDERS_URL, ordersPage(rowCount, columnCount));
+		WebDriverBrowserImpl browser = new WebDriverBrowserImpl();
+		browser.setDriver(driver);
+		browser.open(ORDERS_URL);
+		driver.setLatency(latencyMicros, TimeUnit.MICROSECONDS);
+		return browser;
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.pageobject.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pageobject.DefaultFormattingService;
+import com.pageobject.FormattingService;
+
+/**
+ * Formatting of values typed into forms and parsing of values read from
+ * tables by {@link DefaultFormattingService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormattingBenchmark {
+
+	private final FormattingService formattingService = new DefaultFormattingService();
+	private final Date date = new Date(1381996800000L);
+	private final BigDecimal number = new BigDecimal("12345.678");
+
+	@Benchmark
+	public String formatDate() {
+		return formattingService.formatDate(date);
+	}
+
+	@Benchmark
+	public Date parseDate() {
+		return formattingService.parseDate("17.10.2013");
+	}
+
+	@Benchmark
+	public LocalDate parseLocalDate() {
+		return formattingService.parseLocalDate("17.10.2013");
+	}
+
+	@Benchmark
+	public String formatNumber() {
+		return formattingService.formatNumber(number);
+	}
+
+	@Benchmark
+	public BigDecimal parseNumber() {
+		return formattingService.parseNumber("12 345,68");
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.pageobject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+
+import com.pageobject.controller.LocatorCache;
+import com.pageobject.controller.LocatorTemplate;
+
+/**
+ * Locator preprocessing done by
+ * {@link com.pageobject.controller.WebDriverBrowserImpl} for every command,
+ * with and without the locator cache, and binding of locator templates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocatorBenchmark {
+
+	private static final String[] LOCATORS = {
+		"login",
+		"id=password",
+		"name=username",
+		"css=div.content > table tr:nth-child(2)",
+		"xpath=//table[@id='orders']/tbody/tr[5]/td[3]",
+		"text=Next page",
+	};
+
+	private LocatorTemplate template;
+	private int row;
+
+	@Setup
+	public void setUp() {
+		template = new LocatorTemplate("xpath=//table[@id='orders']/tbody/tr[{0}]/td[{1}]");
+	}
+
+	@Benchmark
+	public void preprocess(CacheState state, Blackhole blackhole) {
+		for (String locator : LOCATORS) {
+			By by = state.cache.getLocator(locator);
+			blackhole.consume(by);
+		}
+	}
+
+	@Benchmark
+	public String bindTemplate() {
+		row = row % 100 + 1;
+		return template.bind(row, 3);
+	}
+
+	/**
+	 * Locator cache, enabled or disabled. Only preprocessing uses it.
+	 */
+	@State(Scope.Thread)
+	public static class CacheState {
+
+		@Param({ "true", "false" })
+		public boolean cached;
+
+		private LocatorCache cache;
+
+		@Setup
+		public void setUp() {
+			cache = new LocatorCache();
+			if (!cached) {
+				cache.setMaxSize(0);
+			}
+		}
+	}
+
+}
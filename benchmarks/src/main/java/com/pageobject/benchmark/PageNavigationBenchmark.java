@@ -0,0 +1,79 @@
+package com.pageobject.benchmark;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+/**
+ * Cost of {@link com.pageobject.component.AbstractPage#navigateTo(Class, Object...)}
+ * in a Spring context with {@link BenchmarkPageValidation}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-opens", "java.base/java.lang=ALL-UNNAMED" })
+@State(Scope.Thread)
+public class PageNavigationBenchmark {
+
+	private GenericApplicationContext context;
+	private BenchmarkPage page;
+
+	@Setup
+	public void setUp() {
+		context = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+
+		Properties properties = new Properties();
+		properties.setProperty("webapp.url", "http://localhost");
+		properties.setProperty("webapp.context", "");
+		PropertySourcesPlaceholderConfigurer placeholderConfigurer = new PropertySourcesPlaceholderConfigurer();
+		placeholderConfigurer.setProperties(properties);
+		context.getBeanFactory().registerSingleton("placeholderConfigurer", placeholderConfigurer);
+		context.getBeanFactory().registerSingleton("browser", Fixtures.ordersBrowser(1, 1, 0));
+
+		GenericBeanDefinition autoProxyCreator = new GenericBeanDefinition();
+		autoProxyCreator.setBeanClass(AnnotationAwareAspectJAutoProxyCreator.class);
+		autoProxyCreator.getPropertyValues().add("proxyTargetClass", true);
+		context.registerBeanDefinition("autoProxyCreator", autoProxyCreator);
+		GenericBeanDefinition aspect = new GenericBeanDefinition();
+		aspect.setBeanClass(BenchmarkPageValidation.class);
+		context.registerBeanDefinition("validPageAspect", aspect);
+		// registered directly, component scan of Spring 3.2 cannot read Java 8 class files
+		GenericBeanDefinition pageDefinition = new GenericBeanDefinition();
+		pageDefinition.setBeanClass(BenchmarkPage.class);
+		pageDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		context.registerBeanDefinition("benchmarkPage", pageDefinition);
+		context.refresh();
+
+		page = context.getBean(BenchmarkPage.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public BenchmarkPage navigateTo() {
+		return page.navigateToNext();
+	}
+
+}
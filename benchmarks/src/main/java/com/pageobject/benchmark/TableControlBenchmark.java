@@ -0,0 +1,88 @@
+package com.pageobject.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pageobject.TableControl;
+import com.pageobject.TableRow;
+import com.pageobject.TableSnapshot;
+
+/**
+ * Reading and searching a table by {@link TableControl}, cell by cell and
+ * with scripted reads, against {@link com.pageobject.controller.FakeWebDriver}.
+ * Without latency the results show the framework overhead, run with
+ * <code>-p latencyMicros=2000</code> to simulate a remote browser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableControlBenchmark {
+
+	private static final int COLUMNS = 5;
+
+	@Param({ "10", "100" })
+	public int rows;
+
+	@Param({ "false", "true" })
+	public boolean scripted;
+
+	@Param({ "0" })
+	public long latencyMicros;
+
+	private TableControl table;
+	private String lastRowValue;
+
+	@Setup
+	public void setUp() {
+		table = new TableControl();
+		table.setBrowserController(Fixtures.ordersBrowser(rows, COLUMNS, latencyMicros));
+		table.setTableLocator(Fixtures.TABLE_XPATH);
+		table.setNextPageButton("id=next");
+		table.setScriptedReads(scripted);
+		lastRowValue = "r" + rows + "c2";
+	}
+
+	@Benchmark
+	public List<TableRow> getAllRows() {
+		table.resetHeader();
+		return table.getAllRows();
+	}
+
+	@Benchmark
+	public TableSnapshot getSnapshot() {
+		table.resetHeader();
+		return table.getSnapshot();
+	}
+
+	@Benchmark
+	public Integer findRow() {
+		return table.findRow(lastRowValue);
+	}
+
+	@Benchmark
+	public Integer findColumn() {
+		return table.findColumn("Column " + COLUMNS);
+	}
+
+	@Benchmark
+	public Integer findColumnUncached() {
+		table.resetHeader();
+		return table.findColumn("Column " + COLUMNS);
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.pageobject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.pageobject.component.ValidPageAspect;
+import com.pageobject.controller.BrowserController;
+
+/**
+ * Overhead of {@link ValidPageAspect} on a page method call, compared with
+ * calling the page directly. Strict validation checks the page before every
+ * call, otherwise only after the navigation epoch changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-opens", "java.base/java.lang=ALL-UNNAMED" })
+@State(Scope.Thread)
+public class ValidPageAspectBenchmark {
+
+	private BenchmarkPage page;
+
+	@Setup
+	public void setUp() {
+		page = new BenchmarkPage();
+		page.setBrowserController(Fixtures.ordersBrowser(1, 1, 0));
+	}
+
+	@Benchmark
+	public int direct() {
+		return page.next();
+	}
+
+	@Benchmark
+	public int validated(ProxyState state) {
+		return state.validatedPage.next();
+	}
+
+	/**
+	 * Page proxied with the aspect, validating strictly or not. Only the
+	 * validated calls use it.
+	 */
+	@State(Scope.Thread)
+	public static class ProxyState {
+
+		@Param({ "false", "true" })
+		public boolean strict;
+
+		private BenchmarkPage validatedPage;
+
+		@Setup
+		public void setUp() {
+			BrowserController browser = Fixtures.ordersBrowser(1, 1, 0);
+			BenchmarkPage page = new BenchmarkPage();
+			page.setBrowserController(browser);
+			BenchmarkPageValidation aspect = new BenchmarkPageValidation();
+			aspect.setBrowserController(browser);
+			aspect.setStrictValidation(strict);
+			AspectJProxyFactory factory = new AspectJProxyFactory(page);
+			factory.setProxyTargetClass(true);
+			factory.addAspect(aspect);
+			validatedPage = factory.getProxy();
+		}
+	}
+
+}
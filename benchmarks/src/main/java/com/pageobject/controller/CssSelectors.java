@@ -0,0 +1,279 @@
+package com.pageobject.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.InvalidSelectorException;
+
+/**
+ * Translates a subset of CSS selectors to XPath for {@link FakeWebDriver}.
+ *
+ * <p>
+ * Supported are type and universal selectors, <code>#id</code>,
+ * <code>.class</code>, attribute selectors with <code>=</code>,
+ * <code>~=</code>, <code>^=</code>, <code>$=</code> and <code>*=</code>,
+ * pseudo-classes <code>:first-child</code>, <code>:last-child</code> and
+ * <code>:nth-child(n)</code>, all four combinators and selector groups.
+ */
+class CssSelectors {
+
+	private CssSelectors() {
+	}
+
+	/**
+	 * Translates a CSS selector to XPath.
+	 *
+	 * @param selector CSS selector
+	 * @param relative whether to search within the context node only
+	 * @return equivalent XPath
+	 * @throws InvalidSelectorException if the selector is not supported
+	 */
+	static String toXPath(String selector, boolean relative) {
+		StringBuilder xpath = new StringBuilder();
+		for (String group : split(selector)) {
+			if (xpath.length() > 0) {
+				xpath.append(" | ");
+			}
+			new Parser(selector, group.trim(), relative ? ".//" : "//").translate(xpath);
+		}
+		return xpath.toString();
+	}
+
+	/**
+	 * Quotes a string as an XPath literal.
+	 *
+	 * @param value string to quote
+	 * @return XPath literal
+	 */
+	static String quote(String value) {
+		if (value.indexOf('\'') < 0) {
+			return "'" + value + "'";
+		}
+		if (value.indexOf('"') < 0) {
+			return "\"" + value + "\"";
+		}
+		return "concat('" + value.replace("'", "', \"'\", '") + "')";
+	}
+
+	private static List<String> split(String selector) {
+		List<String> groups = new ArrayList<String>();
+		int depth = 0;
+		char quote = 0;
+		int start = 0;
+		for (int i = 0; i < selector.length(); i++) {
+			char c = selector.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '[' || c == '(') {
+				depth++;
+			} else if (c == ']' || c == ')') {
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				groups.add(selector.substring(start, i));
+				start = i + 1;
+			}
+		}
+		groups.add(selector.substring(start));
+		return groups;
+	}
+
+	private static class Parser {
+		private final String selector;
+		private final String group;
+		private final String axis;
+		private int pos;
+
+		Parser(String selector, String group, String axis) {
+			this.selector = selector;
+			this.group = group;
+			this.axis = axis;
+		}
+
+		void translate(StringBuilder xpath) {
+			if (group.length() == 0) {
+				throw invalid("empty selector");
+			}
+			xpath.append(axis);
+			compound(xpath, "");
+			while (pos < group.length()) {
+				boolean whitespace = skipWhitespace();
+				if (pos >= group.length()) {
+					break;
+				}
+				char c = group.charAt(pos);
+				if (c == '>') {
+					pos++;
+					skipWhitespace();
+					compound(xpath, "/");
+				} else if (c == '+') {
+					pos++;
+					skipWhitespace();
+					compound(xpath, "/following-sibling::*[1]/self::");
+				} else if (c == '~') {
+					pos++;
+					skipWhitespace();
+					compound(xpath, "/following-sibling::");
+				} else if (whitespace) {
+					compound(xpath, "//");
+				} else {
+					throw invalid("unexpected '" + c + "'");
+				}
+			}
+		}
+
+		private void compound(StringBuilder xpath, String step) {
+			xpath.append(step);
+			String tag = identifier();
+			if (tag.length() == 0 && pos < group.length() && group.charAt(pos) == '*') {
+				pos++;
+				tag = "*";
+			}
+			xpath.append(tag.length() == 0 ? "*" : tag.toLowerCase());
+
+			boolean simple = tag.length() > 0;
+			while (pos < group.length()) {
+				char c = group.charAt(pos);
+				if (c == '#') {
+					pos++;
+					xpath.append("[@id=").append(quote(identifier())).append(']');
+				} else if (c == '.') {
+					pos++;
+					xpath.append("[contains(concat(' ', normalize-space(@class), ' '), ")
+							.append(quote(" " + identifier() + " ")).append(")]");
+				} else if (c == '[') {
+					pos++;
+					attribute(xpath);
+				} else if (c == ':') {
+					pos++;
+					pseudoClass(xpath);
+				} else {
+					break;
+				}
+				simple = true;
+			}
+			if (!simple) {
+				throw invalid("expected a selector at position " + pos);
+			}
+		}
+
+		private void attribute(StringBuilder xpath) {
+			skipWhitespace();
+			String name = identifier();
+			skipWhitespace();
+			if (name.length() == 0) {
+				throw invalid("missing attribute name");
+			}
+			if (pos < group.length() && group.charAt(pos) == ']') {
+				pos++;
+				xpath.append("[@").append(name).append(']');
+				return;
+			}
+
+			String operator;
+			char c = group.charAt(pos);
+			if (c == '=') {
+				operator = "=";
+				pos++;
+			} else if (pos + 1 < group.length() && group.charAt(pos + 1) == '=') {
+				operator = c + "=";
+				pos += 2;
+			} else {
+				throw invalid("unsupported attribute operator '" + c + "'");
+			}
+			skipWhitespace();
+			String value = value();
+			skipWhitespace();
+			if (pos >= group.length() || group.charAt(pos) != ']') {
+				throw invalid("missing ']'");
+			}
+			pos++;
+
+			String attr = "@" + name;
+			String literal = quote(value);
+			if ("=".equals(operator)) {
+				xpath.append('[').append(attr).append('=').append(literal).append(']');
+			} else if ("~=".equals(operator)) {
+				xpath.append("[contains(concat(' ', normalize-space(").append(attr).append("), ' '), ")
+						.append(quote(" " + value + " ")).append(")]");
+			} else if ("^=".equals(operator)) {
+				xpath.append("[starts-with(").append(attr).append(", ").append(literal).append(")]");
+			} else if ("$=".equals(operator)) {
+				xpath.append("[substring(").append(attr).append(", string-length(").append(attr).append(") - ")
+						.append(value.length() - 1).append(")=").append(literal).append(']');
+			} else if ("*=".equals(operator)) {
+				xpath.append("[contains(").append(attr).append(", ").append(literal).append(")]");
+			} else {
+				throw invalid("unsupported attribute operator '" + operator + "'");
+			}
+		}
+
+		private void pseudoClass(StringBuilder xpath) {
+			String name = identifier();
+			if ("first-child".equals(name)) {
+				xpath.append("[not(preceding-sibling::*)]");
+			} else if ("last-child".equals(name)) {
+				xpath.append("[not(following-sibling::*)]");
+			} else if ("nth-child".equals(name) && pos < group.length() && group.charAt(pos) == '(') {
+				int end = group.indexOf(')', pos);
+				if (end < 0) {
+					throw invalid("missing ')'");
+				}
+				String argument = group.substring(pos + 1, end).trim();
+				pos = end + 1;
+				try {
+					xpath.append("[count(preceding-sibling::*)=").append(Integer.parseInt(argument) - 1).append(']');
+				} catch (NumberFormatException e) {
+					throw invalid("unsupported nth-child argument '" + argument + "'");
+				}
+			} else {
+				throw invalid("unsupported pseudo-class ':" + name + "'");
+			}
+		}
+
+		private String identifier() {
+			int start = pos;
+			while (pos < group.length()) {
+				char c = group.charAt(pos);
+				if (Character.isLetterOrDigit(c) || c == '-' || c == '_') {
+					pos++;
+				} else if (c == '\\' && pos + 1 < group.length()) {
+					pos += 2;
+				} else {
+					break;
+				}
+			}
+			return group.substring(start, pos).replace("\\", "");
+		}
+
+		private String value() {
+			if (pos < group.length() && (group.charAt(pos) == '"' || group.charAt(pos) == '\'')) {
+				char quote = group.charAt(pos);
+				int end = group.indexOf(quote, pos + 1);
+				if (end < 0) {
+					throw invalid("unterminated string");
+				}
+				String value = group.substring(pos + 1, end);
+				pos = end + 1;
+				return value;
+			}
+			return identifier();
+		}
+
+		private boolean skipWhitespace() {
+			int start = pos;
+			while (pos < group.length() && Character.isWhitespace(group.charAt(pos))) {
+				pos++;
+			}
+			return pos > start;
+		}
+
+		private InvalidSelectorException invalid(String reason) {
+			return new InvalidSelectorException("Unsupported CSS selector '" + selector + "': " + reason);
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.pageobject.controller;
+
+/**
+ * Stub of a JavaScript snippet executed by {@link FakeWebDriver}. The fake
+ * driver does not run JavaScript, scripts are answered by stubs registered
+ * with {@link FakeWebDriver#addScript(String, FakeScript)}.
+ */
+public interface FakeScript {
+
+	/**
+	 * Computes the result of the script.
+	 *
+	 * @param driver
+	 *            driver executing the script, giving access to the current
+	 *            page
+	 * @param script
+	 *            the executed script
+	 * @param args
+	 *            script arguments
+	 * @return script result: <code>null</code>, Boolean, Long, Double,
+	 *         String, WebElement or a List of them, as a real driver would
+	 *         return
+	 */
+	Object execute(FakeWebDriver driver, String script, Object[] args);
+
+}
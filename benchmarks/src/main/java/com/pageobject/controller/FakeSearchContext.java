@@ -0,0 +1,126 @@
+package com.pageobject.controller;
+
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.FindsByClassName;
+import org.openqa.selenium.internal.FindsByCssSelector;
+import org.openqa.selenium.internal.FindsById;
+import org.openqa.selenium.internal.FindsByLinkText;
+import org.openqa.selenium.internal.FindsByName;
+import org.openqa.selenium.internal.FindsByTagName;
+import org.openqa.selenium.internal.FindsByXPath;
+import org.w3c.dom.Node;
+
+/**
+ * Element lookups shared by {@link FakeWebDriver} and its elements. Every
+ * locator type is translated to XPath and evaluated on the in-memory DOM.
+ */
+abstract class FakeSearchContext implements SearchContext, FindsById, FindsByName, FindsByXPath,
+		FindsByCssSelector, FindsByLinkText, FindsByTagName, FindsByClassName {
+
+	/**
+	 * @return driver owning the DOM
+	 */
+	abstract FakeWebDriver getFakeDriver();
+
+	/**
+	 * @return node the lookups start from
+	 */
+	abstract Node getSearchRoot();
+
+	/**
+	 * @return whether lookups are limited to descendants of the search root
+	 */
+	abstract boolean isRelative();
+
+	public List<WebElement> findElements(By by) {
+		getFakeDriver().command();
+		return by.findElements(this);
+	}
+
+	public WebElement findElement(By by) {
+		getFakeDriver().command();
+		return by.findElement(this);
+	}
+
+	public List<WebElement> findElementsByXPath(String using) {
+		return getFakeDriver().evaluate(getSearchRoot(), using);
+	}
+
+	public WebElement findElementByXPath(String using) {
+		return first(findElementsByXPath(using), "xpath", using);
+	}
+
+	public List<WebElement> findElementsById(String using) {
+		return findElementsByXPath(axis() + "*[@id=" + CssSelectors.quote(using) + "]");
+	}
+
+	public WebElement findElementById(String using) {
+		return first(findElementsById(using), "id", using);
+	}
+
+	public List<WebElement> findElementsByName(String using) {
+		return findElementsByXPath(axis() + "*[@name=" + CssSelectors.quote(using) + "]");
+	}
+
+	public WebElement findElementByName(String using) {
+		return first(findElementsByName(using), "name", using);
+	}
+
+	public List<WebElement> findElementsByCssSelector(String using) {
+		return findElementsByXPath(CssSelectors.toXPath(using, isRelative()));
+	}
+
+	public WebElement findElementByCssSelector(String using) {
+		return first(findElementsByCssSelector(using), "css selector", using);
+	}
+
+	public List<WebElement> findElementsByLinkText(String using) {
+		return findElementsByXPath(axis() + "a[normalize-space(.)=" + CssSelectors.quote(using.trim()) + "]");
+	}
+
+	public WebElement findElementByLinkText(String using) {
+		return first(findElementsByLinkText(using), "link text", using);
+	}
+
+	public List<WebElement> findElementsByPartialLinkText(String using) {
+		return findElementsByXPath(axis() + "a[contains(normalize-space(.), " + CssSelectors.quote(using.trim()) + ")]");
+	}
+
+	public WebElement findElementByPartialLinkText(String using) {
+		return first(findElementsByPartialLinkText(using), "partial link text", using);
+	}
+
+	public List<WebElement> findElementsByTagName(String using) {
+		return findElementsByXPath(axis() + using.toLowerCase());
+	}
+
+	public WebElement findElementByTagName(String using) {
+		return first(findElementsByTagName(using), "tag name", using);
+	}
+
+	public List<WebElement> findElementsByClassName(String using) {
+		return findElementsByXPath(axis() + "*[contains(concat(' ', normalize-space(@class), ' '), "
+				+ CssSelectors.quote(" " + using + " ") + ")]");
+	}
+
+	public WebElement findElementByClassName(String using) {
+		return first(findElementsByClassName(using), "class name", using);
+	}
+
+	private String axis() {
+		return isRelative() ? ".//" : "//";
+	}
+
+	private static WebElement first(List<WebElement> elements, String type, String using) {
+		if (elements.isEmpty()) {
+			throw new NoSuchElementException("Unable to locate element by " + type + ": " + using);
+		}
+		return elements.get(0);
+	}
+
+}
@@ -0,0 +1,793 @@
+package com.pageobject.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import com.pageobject.TableScripts;
+
+/**
+ * In-memory {@link WebDriver} serving pages from XHTML fixtures, for
+ * benchmarks and tests of page objects without a browser.
+ *
+ * <p>
+ * Fixtures are registered by URL with {@link #addPage(String, String)} and
+ * parsed into a DOM when loaded. Simple XPath expressions, such as the
+ * locators generated by {@link com.pageobject.TableControl}, are evaluated
+ * directly on the DOM, other by the JDK XPath engine. Elements are looked up by id, name, CSS
+ * selector (see {@link CssSelectors} for the supported subset), XPath and link
+ * text. Clicking links and submitting forms loads the fixture of the target
+ * URL, form fields keep their state in the DOM.
+ *
+ * <p>
+ * JavaScript is not executed. Scripts are answered by {@link FakeScript}
+ * stubs, the scripts issued by {@link WebDriverBrowserImpl} and
+ * {@link com.pageobject.TableControl} are stubbed out of the box. Pages are
+ * static, so waits finish immediately.
+ *
+ * <p>
+ * Every command may be delayed by {@link #setLatency(long, TimeUnit)} to
+ * simulate a remote browser. Like real drivers, the fake is not thread-safe.
+ *
+ * <pre>
+ * FakeWebDriver driver = new FakeWebDriver();
+ * driver.addPage("http://localhost/orders", OrdersTest.class.getResource("orders.xhtml"));
+ * driver.setLatency(5, TimeUnit.MILLISECONDS);
+ * browser.setDriver(driver);
+ * </pre>
+ */
+public class FakeWebDriver extends FakeSearchContext implements WebDriver, JavascriptExecutor, TakesScreenshot {
+
+	public static final String BLANK_PAGE = "about:blank";
+
+	private static final Logger logger = LoggerFactory.getLogger(FakeWebDriver.class);
+
+	private static final String BLANK_HTML = "<html><head><title></title></head><body></body></html>";
+	private static final String BLANK_PNG_BASE64 =
+			"iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+	private static final int MAX_COMPILED_EXPRESSIONS = 256;
+	private static final Map<String, String> HTML_ENTITIES = new HashMap<String, String>();
+
+	static {
+		HTML_ENTITIES.put("nbsp", "&#160;");
+		HTML_ENTITIES.put("copy", "&#169;");
+		HTML_ENTITIES.put("reg", "&#174;");
+		HTML_ENTITIES.put("euro", "&#8364;");
+		HTML_ENTITIES.put("ndash", "&#8211;");
+		HTML_ENTITIES.put("mdash", "&#8212;");
+		HTML_ENTITIES.put("hellip", "&#8230;");
+		HTML_ENTITIES.put("laquo", "&#171;");
+		HTML_ENTITIES.put("raquo", "&#187;");
+	}
+
+	private static final Pattern ENTITY = Pattern.compile("&([a-zA-Z]+);");
+
+	private final Map<String, String> pages = new HashMap<String, String>();
+	private final List<String> scriptFragments = new ArrayList<String>();
+	private final List<FakeScript> scriptStubs = new ArrayList<FakeScript>();
+	private final Map<String, BrowserWindow> windows = new LinkedHashMap<String, BrowserWindow>();
+	private final Set<Cookie> cookies = new LinkedHashSet<Cookie>();
+	private final DocumentBuilderFactory documentBuilderFactory;
+	private final XPath xpath = XPathFactory.newInstance().newXPath();
+	private final Map<String, Object> expressions = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+			return size() > MAX_COMPILED_EXPRESSIONS;
+		}
+	};
+
+	private BrowserWindow current;
+	private int windowCount;
+	private long latencyNanos;
+	private long commandCount;
+	private Dimension windowSize = new Dimension(1024, 768);
+	private Point windowPosition = new Point(0, 0);
+
+	/**
+	 * Creates a driver with one blank window.
+	 */
+	public FakeWebDriver() {
+		documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(false);
+		documentBuilderFactory.setValidating(false);
+		try {
+			documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+		} catch (Exception e) {
+			logger.debug("XML parser does not support disabling external DTDs: {}", e.getMessage());
+		}
+		addBuiltInScripts();
+		current = newWindow(BLANK_PAGE);
+	}
+
+	/**
+	 * Registers a page fixture.
+	 * @param url URL the page is served at
+	 * @param xhtml page source, must be well-formed XML
+	 */
+	public void addPage(String url, String xhtml) {
+		pages.put(url, xhtml);
+	}
+
+	/**
+	 * Registers a page fixture read from a resource, e.g. from the classpath.
+	 * @param url URL the page is served at
+	 * @param resource page source, must be well-formed XML in UTF-8
+	 * @throws IllegalArgumentException if the resource cannot be read
+	 */
+	public void addPage(String url, URL resource) {
+		if (resource == null) {
+			throw new IllegalArgumentException("Fixture of " + url + " not found");
+		}
+		try {
+			InputStream in = resource.openStream();
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+					out.write(buffer, 0, read);
+				}
+				addPage(url, out.toString("UTF-8"));
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read fixture " + resource, e);
+		}
+	}
+
+	/**
+	 * Registers a script stub answering every script containing the
+	 * fragment. Stubs registered later take precedence, so built-in stubs
+	 * can be overridden.
+	 * @param fragment part of the script identifying it
+	 * @param stub the stub computing the script result
+	 */
+	public void addScript(String fragment, FakeScript stub) {
+		scriptFragments.add(fragment);
+		scriptStubs.add(stub);
+	}
+
+	/**
+	 * Delays every command to simulate the round trip to a remote browser.
+	 * Default is no delay.
+	 * @param latency delay of one command
+	 * @param unit unit of the delay
+	 */
+	public void setLatency(long latency, TimeUnit unit) {
+		this.latencyNanos = unit.toNanos(latency);
+	}
+
+	/**
+	 * Returns number of commands executed, i.e. of round trips a remote
+	 * browser would need.
+	 * @return command count
+	 */
+	public long getCommandCount() {
+		return commandCount;
+	}
+
+	/**
+	 * Resets the command count.
+	 */
+	public void resetCommandCount() {
+		commandCount = 0;
+	}
+
+	/**
+	 * Opens a new window, as a page script calling <code>window.open</code>
+	 * would. The current window does not change.
+	 * @param url URL to load in the new window
+	 * @return handle of the new window
+	 */
+	public String openWindow(String url) {
+		command();
+		return newWindow(url).handle;
+	}
+
+	/**
+	 * Returns the DOM of the current page, e.g. for script stubs.
+	 * @return the current document
+	 */
+	public Document getDocument() {
+		return currentWindow().document;
+	}
+
+	/**
+	 * Wraps a DOM element of the current page, e.g. for script stubs
+	 * returning elements.
+	 * @param element element of the current page
+	 * @return web element
+	 */
+	public WebElement toWebElement(Element element) {
+		return new FakeWebElement(this, element);
+	}
+
+	public void get(String url) {
+		command();
+		load(currentWindow(), url, true);
+	}
+
+	public String getCurrentUrl() {
+		command();
+		return currentWindow().url;
+	}
+
+	public String getTitle() {
+		command();
+		return titleOf(currentWindow());
+	}
+
+	public String getPageSource() {
+		command();
+		try {
+			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+			StringWriter source = new StringWriter();
+			transformer.transform(new DOMSource(currentWindow().document), new StreamResult(source));
+			return source.toString();
+		} catch (Exception e) {
+			throw new WebDriverException("Unable to serialize page", e);
+		}
+	}
+
+	public void close() {
+		command();
+		windows.remove(currentWindow().handle);
+		current = null;
+	}
+
+	public void quit() {
+		command();
+		windows.clear();
+		current = null;
+	}
+
+	public Set<String> getWindowHandles() {
+		command();
+		return new LinkedHashSet<String>(windows.keySet());
+	}
+
+	public String getWindowHandle() {
+		command();
+		return currentWindow().handle;
+	}
+
+	public TargetLocator switchTo() {
+		return new TargetLocator() {
+			public WebDriver window(String nameOrHandle) {
+				command();
+				BrowserWindow window = windows.get(nameOrHandle);
+				if (window == null) {
+					for (BrowserWindow candidate : windows.values()) {
+						if (candidate.name.equals(nameOrHandle)) {
+							window = candidate;
+						}
+					}
+				}
+				if (window == null) {
+					throw new NoSuchWindowException("No window " + nameOrHandle);
+				}
+				current = window;
+				return FakeWebDriver.this;
+			}
+
+			public WebDriver defaultContent() {
+				command();
+				return FakeWebDriver.this;
+			}
+
+			public WebElement activeElement() {
+				command();
+				NodeList bodies = currentWindow().document.getElementsByTagName("body");
+				Element active = bodies.getLength() > 0 ? (Element) bodies.item(0)
+						: currentWindow().document.getDocumentElement();
+				return new FakeWebElement(FakeWebDriver.this, active);
+			}
+
+			public WebDriver frame(int index) {
+				throw new NoSuchFrameException("Frames are not supported by the fake driver");
+			}
+
+			public WebDriver frame(String nameOrId) {
+				throw new NoSuchFrameException("Frames are not supported by the fake driver");
+			}
+
+			public WebDriver frame(WebElement frameElement) {
+				throw new NoSuchFrameException("Frames are not supported by the fake driver");
+			}
+
+			public Alert alert() {
+				throw new NoAlertPresentException("Alerts are not supported by the fake driver");
+			}
+		};
+	}
+
+	public Navigation navigate() {
+		return new Navigation() {
+			public void to(String url) {
+				get(url);
+			}
+
+			public void to(URL url) {
+				get(url.toString());
+			}
+
+			public void back() {
+				command();
+				BrowserWindow window = currentWindow();
+				if (window.historyIndex > 0) {
+					window.historyIndex--;
+					load(window, window.history.get(window.historyIndex), false);
+				}
+			}
+
+			public void forward() {
+				command();
+				BrowserWindow window = currentWindow();
+				if (window.historyIndex < window.history.size() - 1) {
+					window.historyIndex++;
+					load(window, window.history.get(window.historyIndex), false);
+				}
+			}
+
+			public void refresh() {
+				command();
+				load(currentWindow(), currentWindow().url, false);
+			}
+		};
+	}
+
+	public Options manage() {
+		return new Options() {
+			public void addCookie(Cookie cookie) {
+				command();
+				deleteCookieNamed(cookie.getName());
+				cookies.add(cookie);
+			}
+
+			public void deleteCookieNamed(String name) {
+				command();
+				Cookie cookie = getCookieNamed(name);
+				if (cookie != null) {
+					cookies.remove(cookie);
+				}
+			}
+
+			public void deleteCookie(Cookie cookie) {
+				deleteCookieNamed(cookie.getName());
+			}
+
+			public void deleteAllCookies() {
+				command();
+				cookies.clear();
+			}
+
+			public Set<Cookie> getCookies() {
+				command();
+				return new LinkedHashSet<Cookie>(cookies);
+			}
+
+			public Cookie getCookieNamed(String name) {
+				for (Cookie cookie : cookies) {
+					if (cookie.getName().equals(name)) {
+						return cookie;
+					}
+				}
+				return null;
+			}
+
+			public Timeouts timeouts() {
+				return new Timeouts() {
+					public Timeouts implicitlyWait(long time, TimeUnit unit) {
+						command();
+						return this;
+					}
+
+					public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+						command();
+						return this;
+					}
+
+					public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+						command();
+						return this;
+					}
+				};
+			}
+
+			public ImeHandler ime() {
+				throw new UnsupportedCommandException("Input methods are not supported by the fake driver");
+			}
+
+			public WebDriver.Window window() {
+				return new WebDriver.Window() {
+					public void setSize(Dimension targetSize) {
+						command();
+						windowSize = targetSize;
+					}
+
+					public void setPosition(Point targetPosition) {
+						command();
+						windowPosition = targetPosition;
+					}
+
+					public Dimension getSize() {
+						command();
+						return windowSize;
+					}
+
+					public Point getPosition() {
+						command();
+						return windowPosition;
+					}
+
+					public void maximize() {
+						command();
+					}
+				};
+			}
+
+			public Logs logs() {
+				throw new UnsupportedCommandException("Logs are not supported by the fake driver");
+			}
+		};
+	}
+
+	public Object executeScript(String script, Object... args) {
+		command();
+		currentWindow();
+		for (int i = scriptStubs.size() - 1; i >= 0; i--) {
+			if (script.contains(scriptFragments.get(i))) {
+				return scriptStubs.get(i).execute(this, script, args);
+			}
+		}
+		logger.debug("No stub for script, returning null: {}", script);
+		return null;
+	}
+
+	public Object executeAsyncScript(String script, Object... args) {
+		return executeScript(script, args);
+	}
+
+	/**
+	 * Returns a blank image, the fake driver does not render pages.
+	 */
+	public <X> X getScreenshotAs(OutputType<X> target) {
+		command();
+		return target.convertFromBase64Png(BLANK_PNG_BASE64);
+	}
+
+	@Override
+	FakeWebDriver getFakeDriver() {
+		return this;
+	}
+
+	@Override
+	Node getSearchRoot() {
+		return currentWindow().document;
+	}
+
+	@Override
+	boolean isRelative() {
+		return false;
+	}
+
+	/**
+	 * Counts a command and waits for the configured latency.
+	 */
+	void command() {
+		commandCount++;
+		if (latencyNanos > 0) {
+			long deadline = System.nanoTime() + latencyNanos;
+			for (long remaining = latencyNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+				LockSupport.parkNanos(remaining);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates XPath on the current page.
+	 * @param context node the XPath is evaluated against
+	 * @param expression XPath selecting elements
+	 * @return matching elements in document order
+	 */
+	List<WebElement> evaluate(Node context, String expression) {
+		Object compiled = expressions.get(expression);
+		try {
+			if (compiled == null) {
+				compiled = SimpleXPath.compile(expression);
+				if (compiled == null) {
+					compiled = xpath.compile(expression);
+				}
+				expressions.put(expression, compiled);
+			}
+			if (compiled instanceof SimpleXPath) {
+				List<Element> found = ((SimpleXPath) compiled).evaluate(context);
+				List<WebElement> elements = new ArrayList<WebElement>(found.size());
+				for (Element element : found) {
+					elements.add(new FakeWebElement(this, element));
+				}
+				return elements;
+			}
+			NodeList nodes = (NodeList) ((XPathExpression) compiled).evaluate(context, XPathConstants.NODESET);
+			List<WebElement> elements = new ArrayList<WebElement>(nodes.getLength());
+			for (int i = 0; i < nodes.getLength(); i++) {
+				if (nodes.item(i) instanceof Element) {
+					elements.add(new FakeWebElement(this, (Element) nodes.item(i)));
+				}
+			}
+			return elements;
+		} catch (XPathExpressionException e) {
+			throw new InvalidSelectorException("Invalid XPath '" + expression + "': " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Fails if the element does not belong to the current page any more.
+	 * @param element element to check
+	 */
+	void checkAttached(Element element) {
+		if (element.getOwnerDocument() != currentWindow().document) {
+			throw new StaleElementReferenceException("Element is not attached to the current page");
+		}
+	}
+
+	/**
+	 * Loads the target of a link or form in the current window.
+	 * @param href link target, relative to the current URL
+	 */
+	void follow(String href) {
+		if (href.startsWith("#") || href.startsWith("javascript:")) {
+			return;
+		}
+		BrowserWindow window = currentWindow();
+		String url = href;
+		try {
+			url = new URI(window.url).resolve(href).toString();
+		} catch (Exception e) {
+			logger.debug("Unable to resolve {} against {}", href, window.url);
+		}
+		load(window, url, true);
+	}
+
+	private BrowserWindow currentWindow() {
+		if (current == null) {
+			throw new NoSuchWindowException("The current window was closed");
+		}
+		return current;
+	}
+
+	private BrowserWindow newWindow(String url) {
+		BrowserWindow window = new BrowserWindow("window-" + (++windowCount));
+		windows.put(window.handle, window);
+		load(window, url, true);
+		return window;
+	}
+
+	private void load(BrowserWindow window, String url, boolean addToHistory) {
+		String source = pages.get(url);
+		if (source == null) {
+			if (!BLANK_PAGE.equals(url)) {
+				logger.warn("No fixture for {}, loading a blank page", url);
+			}
+			source = BLANK_HTML;
+		}
+		window.document = parse(url, source);
+		window.url = url;
+		if (addToHistory) {
+			while (window.history.size() > window.historyIndex + 1) {
+				window.history.remove(window.history.size() - 1);
+			}
+			window.history.add(url);
+			window.historyIndex = window.history.size() - 1;
+		}
+	}
+
+	private Document parse(String url, String source) {
+		Matcher entity = ENTITY.matcher(source);
+		StringBuffer xml = new StringBuffer(source.length());
+		while (entity.find()) {
+			String replacement = HTML_ENTITIES.get(entity.group(1));
+			entity.appendReplacement(xml, Matcher.quoteReplacement(replacement != null ? replacement : entity.group()));
+		}
+		entity.appendTail(xml);
+
+		try {
+			DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
+			builder.setErrorHandler(null);
+			return builder.parse(new InputSource(new StringReader(xml.toString())));
+		} catch (Exception e) {
+			throw new WebDriverException("Fixture of " + url + " is not well-formed XHTML: " + e.getMessage(), e);
+		}
+	}
+
+	private static String titleOf(BrowserWindow window) {
+		NodeList titles = window.document.getElementsByTagName("title");
+		return titles.getLength() > 0 ? titles.item(0).getTextContent().trim() : "";
+	}
+
+	private void addBuiltInScripts() {
+		addScript("document.readyState", new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return "complete";
+			}
+		});
+		addScript("window.document.title", new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return titleOf(driver.currentWindow());
+			}
+		});
+		addScript("window.document.name", new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return driver.currentWindow().name;
+			}
+		});
+		FakeScript presence = new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return !driver.evaluate(driver.getDocument(), locatorXPath((String) args[0], (String) args[1])).isEmpty();
+			}
+		};
+		addScript(LocatorScripts.IS_PRESENT_SCRIPT, presence);
+		addScript(LocatorScripts.WAIT_FOR_PRESENT_SCRIPT, presence);
+		addScript(LocatorScripts.COUNT_SCRIPT, new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return Long.valueOf(driver.evaluate(driver.getDocument(), locatorXPath((String) args[0], (String) args[1])).size());
+			}
+		});
+		addScript(IdleScripts.INSTALL_SCRIPT, new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return null;
+			}
+		});
+		addScript(IdleScripts.WAIT_FOR_IDLE_SCRIPT, new FakeScript() {
+			public Object execute(FakeWebDriver driver, String script, Object[] args) {
+				return Boolean.TRUE;
+			}
+		});
+		addScript(TableScripts.ROWS_SCRIPT, new RowsScript());
+		addScript(TableScripts.FIND_ROW_SCRIPT, new FindRowScript());
+	}
+
+	/**
+	 * Translates a locator type of {@link LocatorScripts} to XPath.
+	 */
+	private static String locatorXPath(String type, String identifier) {
+		if (LocatorScripts.XPATH.equals(type)) {
+			return identifier;
+		}
+		if (LocatorScripts.CSS.equals(type)) {
+			return CssSelectors.toXPath(identifier, false);
+		}
+		if (LocatorScripts.NAME.equals(type)) {
+			return "//*[@name=" + CssSelectors.quote(identifier) + "]";
+		}
+		if (LocatorScripts.TEXT.equals(type)) {
+			return "//a[normalize-space(.)=" + CssSelectors.quote(identifier.trim()) + "]";
+		}
+		return "//*[@id=" + CssSelectors.quote(identifier) + "]";
+	}
+
+	/**
+	 * Returns cell value the way the table scripts read it.
+	 */
+	private static String cellValue(WebElement webElement) {
+		Element element = ((FakeWebElement) webElement).getElement();
+		String value = FakeWebElement.valueOf(element);
+		return (value != null ? value : element.getTextContent()).trim();
+	}
+
+	/**
+	 * Stub of {@link TableScripts#ROWS_SCRIPT}: reads cell values of rows.
+	 */
+	private static class RowsScript implements FakeScript {
+		public Object execute(FakeWebDriver driver, String script, Object[] args) {
+			List<WebElement> rows = driver.evaluate(driver.getDocument(), (String) args[0]);
+			List<List<String>> result = new ArrayList<List<String>>(rows.size());
+			for (WebElement row : rows) {
+				List<WebElement> cells = driver.evaluate(((FakeWebElement) row).getElement(), (String) args[1]);
+				List<String> values = new ArrayList<String>(cells.size());
+				for (WebElement cell : cells) {
+					values.add(cellValue(cell));
+				}
+				result.add(values);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Stub of {@link TableScripts#FIND_ROW_SCRIPT}: searches a row containing
+	 * given values.
+	 */
+	private static class FindRowScript implements FakeScript {
+		public Object execute(FakeWebDriver driver, String script, Object[] args) {
+			List<WebElement> rows = driver.evaluate(driver.getDocument(), (String) args[0]);
+			List<?> values = (List<?>) args[1];
+			for (int i = 0; i < rows.size(); i++) {
+				String content = cellValue(rows.get(i));
+				boolean found = true;
+				for (Object value : values) {
+					found = found && content.contains(value.toString());
+				}
+				if (found) {
+					return Long.valueOf(i + 1);
+				}
+			}
+			return Long.valueOf(0);
+		}
+	}
+
+	/**
+	 * Browser window with its page and history.
+	 */
+	private static class BrowserWindow {
+		private final String handle;
+		private String name = "";
+		private String url;
+		private Document document;
+		private final List<String> history = new ArrayList<String>();
+		private int historyIndex = -1;
+
+		BrowserWindow(String handle) {
+			this.handle = handle;
+		}
+	}
+
+}
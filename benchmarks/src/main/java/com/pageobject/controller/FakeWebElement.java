@@ -0,0 +1,393 @@
+package com.pageobject.controller;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Element of a {@link FakeWebDriver} page. Form fields keep their state in
+ * DOM attributes, so the state is visible in the page source and to XPath
+ * lookups.
+ */
+class FakeWebElement extends FakeSearchContext implements WebElement, WrapsDriver {
+
+	private static final Set<String> BOOLEAN_ATTRIBUTES = new HashSet<String>(Arrays.asList(
+			"checked", "selected", "disabled", "readonly", "multiple", "hidden", "required"));
+	private static final Set<String> BLOCK_ELEMENTS = new HashSet<String>(Arrays.asList(
+			"address", "blockquote", "div", "dl", "dt", "dd", "fieldset", "form", "h1", "h2", "h3", "h4", "h5",
+			"h6", "hr", "li", "ol", "p", "pre", "table", "tbody", "thead", "tfoot", "tr", "ul", "option"));
+	private static final Set<String> INVISIBLE_ELEMENTS = new HashSet<String>(Arrays.asList(
+			"head", "script", "style", "title", "noscript"));
+
+	private final FakeWebDriver driver;
+	private final Element element;
+
+	FakeWebElement(FakeWebDriver driver, Element element) {
+		this.driver = driver;
+		this.element = element;
+	}
+
+	/**
+	 * @return the DOM element
+	 */
+	Element getElement() {
+		return element;
+	}
+
+	@Override
+	FakeWebDriver getFakeDriver() {
+		return driver;
+	}
+
+	@Override
+	Node getSearchRoot() {
+		driver.checkAttached(element);
+		return element;
+	}
+
+	@Override
+	boolean isRelative() {
+		return true;
+	}
+
+	public WebDriver getWrappedDriver() {
+		return driver;
+	}
+
+	public void click() {
+		command();
+		if (!isEnabled(element)) {
+			return;
+		}
+		String tag = getTagName(element);
+		String type = element.getAttribute("type").toLowerCase();
+		if ("option".equals(tag)) {
+			selectOption();
+		} else if ("input".equals(tag) && "checkbox".equals(type)) {
+			setFlag(element, "checked", !element.hasAttribute("checked"));
+		} else if ("input".equals(tag) && "radio".equals(type)) {
+			checkRadio();
+		} else if ("a".equals(tag) && element.hasAttribute("href")) {
+			driver.follow(element.getAttribute("href"));
+		} else if (("input".equals(tag) && ("submit".equals(type) || "image".equals(type)))
+				|| ("button".equals(tag) && ("submit".equals(type) || type.length() == 0))) {
+			submitForm();
+		}
+	}
+
+	public void submit() {
+		command();
+		submitForm();
+	}
+
+	public void sendKeys(CharSequence... keysToSend) {
+		command();
+		StringBuilder typed = new StringBuilder();
+		boolean enter = false;
+		for (CharSequence keys : keysToSend) {
+			for (int i = 0; i < keys.length(); i++) {
+				char c = keys.charAt(i);
+				if (c == Keys.ENTER.charAt(0) || c == Keys.RETURN.charAt(0)) {
+					enter = true;
+				} else if (c < '\uE000' || c > '\uF8FF') {
+					typed.append(c);
+				}
+			}
+		}
+		setValue(valueOf(element) + typed);
+		if (enter) {
+			submitForm();
+		}
+	}
+
+	public void clear() {
+		command();
+		setValue("");
+	}
+
+	public String getTagName() {
+		command();
+		return getTagName(element);
+	}
+
+	public String getAttribute(String name) {
+		command();
+		if ("value".equals(name)) {
+			String value = valueOf(element);
+			if (value != null) {
+				return value;
+			}
+		}
+		if ("index".equals(name) && "option".equals(getTagName(element))) {
+			return String.valueOf(optionIndex());
+		}
+		if ("className".equals(name)) {
+			name = "class";
+		}
+		if (BOOLEAN_ATTRIBUTES.contains(name)) {
+			return element.hasAttribute(name) ? "true" : null;
+		}
+		return element.hasAttribute(name) ? element.getAttribute(name) : null;
+	}
+
+	public boolean isSelected() {
+		command();
+		return element.hasAttribute("option".equals(getTagName(element)) ? "selected" : "checked");
+	}
+
+	public boolean isEnabled() {
+		command();
+		return isEnabled(element);
+	}
+
+	public String getText() {
+		command();
+		if (!isDisplayed(element)) {
+			return "";
+		}
+		StringBuilder text = new StringBuilder();
+		appendText(element, text);
+		return normalize(text);
+	}
+
+	public boolean isDisplayed() {
+		command();
+		return isDisplayed(element);
+	}
+
+	public Point getLocation() {
+		command();
+		return new Point(0, 0);
+	}
+
+	public Dimension getSize() {
+		command();
+		return new Dimension(0, 0);
+	}
+
+	public String getCssValue(String propertyName) {
+		command();
+		String value = styleOf(element, propertyName);
+		return value == null ? "" : value;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof FakeWebElement && ((FakeWebElement) obj).element == element;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(element);
+	}
+
+	@Override
+	public String toString() {
+		String id = element.getAttribute("id");
+		return "<" + getTagName(element) + (id.length() > 0 ? " id=\"" + id + "\"" : "") + ">";
+	}
+
+	/**
+	 * Returns the value a script would read from the <code>value</code>
+	 * property of the element.
+	 * @param element the element
+	 * @return value of a form field, <code>null</code> for other elements
+	 */
+	static String valueOf(Element element) {
+		String tag = getTagName(element);
+		if ("input".equals(tag)) {
+			if (element.hasAttribute("value")) {
+				return element.getAttribute("value");
+			}
+			String type = element.getAttribute("type").toLowerCase();
+			return "checkbox".equals(type) || "radio".equals(type) ? "on" : "";
+		}
+		if ("textarea".equals(tag)) {
+			return element.getTextContent();
+		}
+		if ("option".equals(tag)) {
+			return element.hasAttribute("value") ? element.getAttribute("value")
+					: element.getTextContent().trim().replaceAll("\\s+", " ");
+		}
+		if ("select".equals(tag)) {
+			NodeList options = element.getElementsByTagName("option");
+			for (int i = 0; i < options.getLength(); i++) {
+				if (((Element) options.item(i)).hasAttribute("selected")) {
+					return valueOf((Element) options.item(i));
+				}
+			}
+			return options.getLength() > 0 ? valueOf((Element) options.item(0)) : "";
+		}
+		if ("button".equals(tag)) {
+			return element.getAttribute("value");
+		}
+		return null;
+	}
+
+	static String getTagName(Element element) {
+		return element.getTagName().toLowerCase();
+	}
+
+	static boolean isDisplayed(Element element) {
+		for (Node node = element; node instanceof Element; node = node.getParentNode()) {
+			Element e = (Element) node;
+			if (INVISIBLE_ELEMENTS.contains(getTagName(e)) || e.hasAttribute("hidden")
+					|| "none".equals(styleOf(e, "display")) || "hidden".equals(styleOf(e, "visibility"))
+					|| ("input".equals(getTagName(e)) && "hidden".equalsIgnoreCase(e.getAttribute("type")))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEnabled(Element element) {
+		return !element.hasAttribute("disabled");
+	}
+
+	private static String styleOf(Element element, String property) {
+		for (String declaration : element.getAttribute("style").split(";")) {
+			int colon = declaration.indexOf(':');
+			if (colon > 0 && declaration.substring(0, colon).trim().equalsIgnoreCase(property)) {
+				return declaration.substring(colon + 1).trim().toLowerCase();
+			}
+		}
+		return null;
+	}
+
+	private static void appendText(Node node, StringBuilder text) {
+		if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) {
+			text.append(node.getNodeValue());
+			return;
+		}
+		if (!(node instanceof Element)) {
+			return;
+		}
+		Element e = (Element) node;
+		if (e != node.getOwnerDocument().getDocumentElement() && !isDisplayed(e)) {
+			return;
+		}
+		String tag = getTagName(e);
+		if ("br".equals(tag)) {
+			text.append('\n');
+			return;
+		}
+		boolean block = BLOCK_ELEMENTS.contains(tag);
+		if (block) {
+			text.append('\n');
+		}
+		for (Node child = e.getFirstChild(); child != null; child = child.getNextSibling()) {
+			appendText(child, text);
+		}
+		if (block) {
+			text.append('\n');
+		} else if ("td".equals(tag) || "th".equals(tag)) {
+			text.append(' ');
+		}
+	}
+
+	private static String normalize(CharSequence text) {
+		StringBuilder result = new StringBuilder();
+		for (String line : text.toString().split("\n")) {
+			String normalized = line.replace('\u00A0', ' ').replaceAll("[ \\t\\r\\f]+", " ").trim();
+			if (normalized.length() > 0) {
+				if (result.length() > 0) {
+					result.append('\n');
+				}
+				result.append(normalized);
+			}
+		}
+		return result.toString();
+	}
+
+	private void command() {
+		driver.command();
+		driver.checkAttached(element);
+	}
+
+	private void setValue(String value) {
+		if ("textarea".equals(getTagName(element))) {
+			element.setTextContent(value);
+		} else {
+			element.setAttribute("value", value);
+		}
+	}
+
+	private void selectOption() {
+		Element select = ancestor(element, "select");
+		boolean multiple = select != null && select.hasAttribute("multiple");
+		if (multiple) {
+			setFlag(element, "selected", !element.hasAttribute("selected"));
+			return;
+		}
+		if (select != null) {
+			NodeList options = select.getElementsByTagName("option");
+			for (int i = 0; i < options.getLength(); i++) {
+				((Element) options.item(i)).removeAttribute("selected");
+			}
+		}
+		setFlag(element, "selected", true);
+	}
+
+	private int optionIndex() {
+		Element select = ancestor(element, "select");
+		if (select == null) {
+			return 0;
+		}
+		NodeList options = select.getElementsByTagName("option");
+		for (int i = 0; i < options.getLength(); i++) {
+			if (options.item(i) == element) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	private void checkRadio() {
+		Element scope = ancestor(element, "form");
+		NodeList inputs = (scope != null ? scope : element.getOwnerDocument().getDocumentElement())
+				.getElementsByTagName("input");
+		for (int i = 0; i < inputs.getLength(); i++) {
+			Element input = (Element) inputs.item(i);
+			if ("radio".equalsIgnoreCase(input.getAttribute("type"))
+					&& input.getAttribute("name").equals(element.getAttribute("name"))) {
+				input.removeAttribute("checked");
+			}
+		}
+		setFlag(element, "checked", true);
+	}
+
+	private void submitForm() {
+		Element form = "form".equals(getTagName(element)) ? element : ancestor(element, "form");
+		if (form != null && form.getAttribute("action").length() > 0) {
+			driver.follow(form.getAttribute("action"));
+		}
+	}
+
+	private static void setFlag(Element element, String name, boolean value) {
+		if (value) {
+			element.setAttribute(name, name);
+		} else {
+			element.removeAttribute(name);
+		}
+	}
+
+	private static Element ancestor(Element element, String tag) {
+		for (Node node = element.getParentNode(); node instanceof Element; node = node.getParentNode()) {
+			if (tag.equals(getTagName((Element) node))) {
+				return (Element) node;
+			}
+		}
+		return null;
+	}
+
+}
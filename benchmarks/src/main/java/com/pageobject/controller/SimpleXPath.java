@@ -0,0 +1,289 @@
+package com.pageobject.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Evaluator of simple XPath location paths directly on the DOM, used by
+ * {@link FakeWebDriver} because the JDK XPath engine copies the whole
+ * document on every evaluation.
+ *
+ * <p>
+ * Supported are paths of element name tests and <code>*</code> separated by
+ * <code>/</code> and <code>//</code>, optionally starting with
+ * <code>.</code>, with predicates <code>[n]</code>, <code>[@attr]</code> and
+ * <code>[@attr='value']</code>. Positional predicates are not supported
+ * after <code>//</code>. Other expressions are left to the XPath engine.
+ */
+class SimpleXPath {
+
+	private static final Comparator<Node> DOCUMENT_ORDER = new Comparator<Node>() {
+		public int compare(Node n1, Node n2) {
+			if (n1 == n2) {
+				return 0;
+			}
+			return (n1.compareDocumentPosition(n2) & Node.DOCUMENT_POSITION_FOLLOWING) != 0 ? -1 : 1;
+		}
+	};
+
+	private final boolean absolute;
+	private final List<Step> steps;
+
+	private SimpleXPath(boolean absolute, List<Step> steps) {
+		this.absolute = absolute;
+		this.steps = steps;
+	}
+
+	/**
+	 * Parses an expression.
+	 * @param expression XPath expression
+	 * @return the compiled path or <code>null</code> if the expression is
+	 *         not a simple path
+	 */
+	static SimpleXPath compile(String expression) {
+		String path = expression.trim();
+		boolean absolute = path.startsWith("/");
+		if (path.startsWith(".//")) {
+			path = path.substring(1);
+		} else if (path.startsWith("./")) {
+			path = path.substring(1);
+		} else if (!absolute) {
+			path = "/" + path;
+		}
+
+		List<Step> steps = new ArrayList<Step>();
+		int pos = 0;
+		while (pos < path.length()) {
+			if (path.charAt(pos) != '/') {
+				return null;
+			}
+			boolean descendant = path.startsWith("//", pos);
+			pos += descendant ? 2 : 1;
+
+			int start = pos;
+			while (pos < path.length() && isNameChar(path.charAt(pos))) {
+				pos++;
+			}
+			String name = path.substring(start, pos);
+			if (name.length() == 0) {
+				return null;
+			}
+			Step step = new Step(descendant, name);
+
+			while (pos < path.length() && path.charAt(pos) == '[') {
+				int end = predicateEnd(path, pos);
+				if (end < 0 || !step.addPredicate(path.substring(pos + 1, end).trim())) {
+					return null;
+				}
+				pos = end + 1;
+			}
+			if (descendant && step.hasPosition()) {
+				return null;
+			}
+			steps.add(step);
+		}
+		return steps.isEmpty() ? null : new SimpleXPath(absolute, steps);
+	}
+
+	/**
+	 * Evaluates the path.
+	 * @param context node relative paths are evaluated against
+	 * @return matching elements in document order
+	 */
+	List<Element> evaluate(Node context) {
+		List<Node> current = new ArrayList<Node>(1);
+		if (absolute) {
+			current.add(context instanceof Document ? context : context.getOwnerDocument());
+		} else {
+			current.add(context);
+		}
+
+		for (Step step : steps) {
+			Set<Node> next = new LinkedHashSet<Node>();
+			for (Node node : current) {
+				if (step.descendant) {
+					step.collectDescendants(node, next);
+				} else {
+					step.collectChildren(node, next);
+				}
+			}
+			current = new ArrayList<Node>(next);
+			if (current.size() > 1 && !step.descendant) {
+				Collections.sort(current, DOCUMENT_ORDER);
+			}
+		}
+
+		List<Element> result = new ArrayList<Element>(current.size());
+		for (Node node : current) {
+			result.add((Element) node);
+		}
+		return result;
+	}
+
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '*' || c == '.';
+	}
+
+	private static int predicateEnd(String path, int start) {
+		char quote = 0;
+		for (int i = start + 1; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '\'' || c == '"') {
+				quote = c;
+			} else if (c == '[') {
+				return -1;
+			} else if (c == ']') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * One location step with its predicates.
+	 */
+	private static class Step {
+		private final boolean descendant;
+		private final String name;
+		private final List<Object> predicates = new ArrayList<Object>();
+
+		Step(boolean descendant, String name) {
+			this.descendant = descendant;
+			this.name = name;
+		}
+
+		boolean addPredicate(String predicate) {
+			if (predicate.length() == 0) {
+				return false;
+			}
+			if (Character.isDigit(predicate.charAt(0))) {
+				try {
+					predicates.add(Integer.valueOf(predicate));
+					return true;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+			if (predicate.charAt(0) != '@') {
+				return false;
+			}
+			int eq = predicate.indexOf('=');
+			if (eq < 0) {
+				String attribute = predicate.substring(1).trim();
+				if (!isName(attribute)) {
+					return false;
+				}
+				predicates.add(new String[] { attribute });
+				return true;
+			}
+			String attribute = predicate.substring(1, eq).trim();
+			String literal = predicate.substring(eq + 1).trim();
+			if (!isName(attribute) || literal.length() < 2) {
+				return false;
+			}
+			char quote = literal.charAt(0);
+			if ((quote != '\'' && quote != '"') || literal.charAt(literal.length() - 1) != quote
+					|| literal.indexOf(quote, 1) != literal.length() - 1) {
+				return false;
+			}
+			predicates.add(new String[] { attribute, literal.substring(1, literal.length() - 1) });
+			return true;
+		}
+
+		boolean hasPosition() {
+			for (Object predicate : predicates) {
+				if (predicate instanceof Integer) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void collectChildren(Node parent, Set<Node> result) {
+			List<Node> candidates = new ArrayList<Node>();
+			for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if (matchesName(child)) {
+					candidates.add(child);
+				}
+			}
+			for (Object predicate : predicates) {
+				candidates = filter(candidates, predicate);
+			}
+			result.addAll(candidates);
+		}
+
+		void collectDescendants(Node root, Set<Node> result) {
+			for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if (child.getNodeType() != Node.ELEMENT_NODE) {
+					continue;
+				}
+				if (matchesName(child) && matchesAttributes((Element) child)) {
+					result.add(child);
+				}
+				collectDescendants(child, result);
+			}
+		}
+
+		private boolean matchesName(Node node) {
+			return node.getNodeType() == Node.ELEMENT_NODE && ("*".equals(name) || name.equals(node.getNodeName()));
+		}
+
+		private boolean matchesAttributes(Element element) {
+			for (Object predicate : predicates) {
+				if (!matches(element, (String[]) predicate)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static List<Node> filter(List<Node> candidates, Object predicate) {
+			if (predicate instanceof Integer) {
+				int position = (Integer) predicate;
+				return position >= 1 && position <= candidates.size()
+						? Collections.singletonList(candidates.get(position - 1))
+						: Collections.<Node>emptyList();
+			}
+			List<Node> matching = new ArrayList<Node>(candidates.size());
+			for (Node candidate : candidates) {
+				if (matches((Element) candidate, (String[]) predicate)) {
+					matching.add(candidate);
+				}
+			}
+			return matching;
+		}
+
+		private static boolean matches(Element element, String[] attribute) {
+			if (!element.hasAttribute(attribute[0])) {
+				return false;
+			}
+			return attribute.length == 1 || attribute[1].equals(element.getAttribute(attribute[0]));
+		}
+
+		private static boolean isName(String name) {
+			if (name.length() == 0) {
+				return false;
+			}
+			for (int i = 0; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != ':') {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
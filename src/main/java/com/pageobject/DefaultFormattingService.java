@@ -5,16 +5,38 @@
  */
 package com.pageobject;
 
+import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * Default formatting service using Czech date and number formats.
  * 
  * <p>Date format: dd.MM.yyyy and number format using <code>1 234,56</code> number format.
+ * 
+ * <p>The service is thread safe. Dates are formatted and parsed by a
+ * {@link SimpleDateFormat} of {@link #getDateFormat()} and numbers by a
+ * {@link DecimalFormat} of {@link #getNumberFormat()}, both cached per thread
+ * and looked up by the current format on every call. Subclasses may format
+ * and parse dates by a {@link DateTimeFormatter} instead, see
+ * {@link #getDateFormatter()}.
  *
  * @author Pavel Muller
  * @version $Revision: 102464 $
@@ -22,6 +44,20 @@ import java.util.Date;
 public class DefaultFormattingService implements FormattingService {
 	private static final String DEFAULT_NUMBER_FORMAT = ".00";
 	private static final String DEFAULT_DATE_FORMAT = "dd.MM.yyyy";
+	
+	private static final ThreadLocal<Map<String, SimpleDateFormat>> DATE_FORMATS = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+		@Override
+		protected Map<String, SimpleDateFormat> initialValue() {
+			return new HashMap<String, SimpleDateFormat>();
+		}
+	};
+	
+	private static final ThreadLocal<Map<String, DecimalFormat>> NUMBER_FORMATS = new ThreadLocal<Map<String, DecimalFormat>>() {
+		@Override
+		protected Map<String, DecimalFormat> initialValue() {
+			return new HashMap<String, DecimalFormat>();
+		}
+	};
 
 	/**
 	 * @see cz.cmhb.olin.selenium.FormattingService#formatDate(java.util.Date)
@@ -30,8 +66,13 @@ public class DefaultFormattingService implements FormattingService {
 		if (date == null) {
 			return null;
 		}
-		SimpleDateFormat dateFormat = new SimpleDateFormat(getDateFormat());
-		return dateFormat.format(date);
+		DateTimeFormatter formatter = getDateFormatter();
+		if (formatter == null) {
+			return getSimpleDateFormat().format(date);
+		}
+		// Date#toInstant() is not supported by java.sql.Date
+		Instant instant = Instant.ofEpochMilli(date.getTime());
+		return formatter.format(ZonedDateTime.ofInstant(instant, ZoneId.systemDefault()));
 	}
 	
 	/**
@@ -41,11 +82,53 @@ public class DefaultFormattingService implements FormattingService {
 		if (str == null) {
 			return null;
 		}
-		SimpleDateFormat dateFormat = new SimpleDateFormat(getDateFormat());
+		DateTimeFormatter formatter = getDateFormatter();
+		if (formatter == null) {
+			try {
+				return getSimpleDateFormat().parse(str);
+			} catch (ParseException e) {
+				throw new IllegalArgumentException("Error parsing date: " + str);
+			}
+		}
 		try {
-			return dateFormat.parse(str);
-		} catch (ParseException e) {
-			throw new IllegalArgumentException("Error parsing date: " + str);
+			TemporalAccessor parsed = formatter.parse(str, new ParsePosition(0));
+			Instant instant;
+			if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+				instant = Instant.from(parsed);
+			} else if (parsed.isSupported(ChronoField.HOUR_OF_DAY)) {
+				instant = LocalDateTime.from(parsed).atZone(ZoneId.systemDefault()).toInstant();
+			} else {
+				instant = LocalDate.from(parsed).atStartOfDay(ZoneId.systemDefault()).toInstant();
+			}
+			return new Date(instant.toEpochMilli());
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("Error parsing date: " + str, e);
+		}
+	}
+
+	/**
+	 * @see com.pageobject.FormattingService#formatDate(java.time.LocalDate)
+	 */
+	public String formatDate(LocalDate date) {
+		DateTimeFormatter formatter = getDateFormatter();
+		if (formatter == null || date == null) {
+			return FormattingService.super.formatDate(date);
+		}
+		return formatter.format(date.atStartOfDay(ZoneId.systemDefault()));
+	}
+
+	/**
+	 * @see com.pageobject.FormattingService#parseLocalDate(String)
+	 */
+	public LocalDate parseLocalDate(String str) {
+		DateTimeFormatter formatter = getDateFormatter();
+		if (formatter == null || str == null) {
+			return FormattingService.super.parseLocalDate(str);
+		}
+		try {
+			return LocalDate.from(formatter.parse(str, new ParsePosition(0)));
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("Error parsing date: " + str, e);
 		}
 	}
 
@@ -56,11 +139,93 @@ public class DefaultFormattingService implements FormattingService {
 		if (number == null) {
 			return null;
 		}
-		DecimalFormat numberFormat = new DecimalFormat(getNumberFormat());
-		DecimalFormatSymbols decimalFormatSymbols = numberFormat.getDecimalFormatSymbols();
+		return getNumberFormatter().format(number);
+	}
+
+	/**
+	 * Parses a number, ignoring white space used to group digits.
+	 * @see com.pageobject.FormattingService#parseNumber(String)
+	 */
+	public BigDecimal parseNumber(String str) {
+		if (str == null) {
+			return null;
+		}
+		StringBuilder digits = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (!Character.isWhitespace(c) && !Character.isSpaceChar(c)) {
+				digits.append(c);
+			}
+		}
+		ParsePosition position = new ParsePosition(0);
+		Number number = getNumberFormatter().parse(digits.toString(), position);
+		if (!(number instanceof BigDecimal) || position.getIndex() != digits.length()) {
+			throw new IllegalArgumentException("Error parsing number: " + str);
+		}
+		return (BigDecimal) number;
+	}
+	
+	/**
+	 * Returns formatter used to format and parse dates instead of
+	 * {@link #getDateFormat()}, e.g. to parse strictly or by a
+	 * {@link DateTimeFormatter} pattern. Parsing ignores trailing text like
+	 * {@link java.text.DateFormat#parse(String)}. Called on every format and
+	 * parse, so the formatter should be a constant.
+	 * This implementation returns <code>null</code>, dates are formatted and
+	 * parsed by a lenient {@link SimpleDateFormat} of {@link #getDateFormat()}.
+	 * @return date formatter or <code>null</code> to use the date format
+	 */
+	protected DateTimeFormatter getDateFormatter() {
+		return null;
+	}
+	
+	/**
+	 * Returns date format of the current thread for {@link #getDateFormat()},
+	 * the default locale and the default time zone.
+	 */
+	private SimpleDateFormat getSimpleDateFormat() {
+		String pattern = getDateFormat();
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		String key = locale.toString() + ' ' + pattern;
+		Map<String, SimpleDateFormat> formats = DATE_FORMATS.get();
+		SimpleDateFormat format = formats.get(key);
+		if (format == null) {
+			format = new SimpleDateFormat(pattern, locale);
+			formats.put(key, format);
+		}
+		format.setTimeZone(TimeZone.getDefault());
+		return format;
+	}
+	
+	/**
+	 * Returns number format of the current thread, shared by services of the
+	 * same class, number format and decimal separator.
+	 */
+	private DecimalFormat getNumberFormatter() {
+		String key = getClass().getName() + ' ' + Locale.getDefault(Locale.Category.FORMAT) + ' '
+				+ getDecimalSeparator() + ' ' + getNumberFormat();
+		Map<String, DecimalFormat> formats = NUMBER_FORMATS.get();
+		DecimalFormat format = formats.get(key);
+		if (format == null) {
+			format = createNumberFormat();
+			formats.put(key, format);
+		}
+		return format;
+	}
+	
+	/**
+	 * Creates number format of {@link #getNumberFormat()} and
+	 * {@link #getDecimalSeparator()}, called once per thread for every
+	 * class, default locale, number format and decimal separator.
+	 * @return number format parsing {@link BigDecimal}
+	 */
+	protected DecimalFormat createNumberFormat() {
+		DecimalFormat format = new DecimalFormat(getNumberFormat());
+		DecimalFormatSymbols decimalFormatSymbols = format.getDecimalFormatSymbols();
 		decimalFormatSymbols.setDecimalSeparator(getDecimalSeparator());
-		numberFormat.setDecimalFormatSymbols(decimalFormatSymbols);
-		return numberFormat.format(number);
+		format.setDecimalFormatSymbols(decimalFormatSymbols);
+		format.setParseBigDecimal(true);
+		return format;
 	}
 	
 	/**
@@ -72,7 +237,7 @@ public class DefaultFormattingService implements FormattingService {
 	}
 
 	/**
-	 * Returns static date format.
+	 * Returns static date format, a {@link SimpleDateFormat} pattern.
 	 * This implementation returns dd.MM.yyyy.
 	 * @return date format
 	 */
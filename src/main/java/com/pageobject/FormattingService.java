@@ -5,6 +5,10 @@
  */
 package com.pageobject;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 /**
@@ -33,4 +37,45 @@ public interface FormattingService {
 	 */
 	public String formatNumber(Number number);
 
+	/**
+	 * Formats a date without time. This implementation formats the start of
+	 * the day in the default time zone by {@link #formatDate(Date)}.
+	 * @param date date to format, may be <code>null</code>
+	 * @return formatted date, <code>null</code> for <code>null</code> date
+	 */
+	public default String formatDate(LocalDate date) {
+		if (date == null) {
+			return null;
+		}
+		return formatDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+	}
+
+	/**
+	 * Parses a date without time. This implementation parses the text by
+	 * {@link #parseDate(String)} and takes its date in the default time zone.
+	 * @param str text to parse, may be <code>null</code>
+	 * @return parsed date, <code>null</code> for <code>null</code> text
+	 * @throws IllegalArgumentException if the text is not a date
+	 */
+	public default LocalDate parseLocalDate(String str) {
+		Date date = parseDate(str);
+		if (date == null) {
+			return null;
+		}
+		return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	/**
+	 * Parses a number formatted by {@link #formatNumber(Number)}. This
+	 * implementation does not know the number format and fails, services
+	 * used to read typed table cells must override it.
+	 * @param str text to parse, may be <code>null</code>
+	 * @return exact parsed number, <code>null</code> for <code>null</code> text
+	 * @throws IllegalArgumentException if the text is not a number
+	 * @throws UnsupportedOperationException if the service does not parse numbers
+	 */
+	public default BigDecimal parseNumber(String str) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not parse numbers");
+	}
+
 }
@@ -6,12 +6,15 @@
 package com.pageobject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.StringUtils;
 
 import com.pageobject.component.AbstractComponent;
 import com.pageobject.component.Component;
+import com.pageobject.controller.LocatorTemplate;
 
 /**
  * Control for simple manipulation with HTML table.
@@ -29,6 +32,13 @@ public class TableControl extends AbstractComponent {
 	private String tableLocator;
 	private String selectedRowAttributeName;
 	private String selectedRowAttributeValue;
+	private boolean scriptedReads = false;
+	private TableHeader header;
+	private long headerEpoch;
+	
+	private LocatorTemplate rowTemplate;
+	private LocatorTemplate cellTemplate;
+	private LocatorTemplate headerCellTemplate;
 	
 	/**
 	 * Configures location of a table within a page.
@@ -37,6 +47,10 @@ public class TableControl extends AbstractComponent {
 	 */
 	public void setTableLocator(String tableLocator) {
 		this.tableLocator = tableLocator;
+		this.rowTemplate = null;
+		this.cellTemplate = null;
+		this.headerCellTemplate = null;
+		this.header = null;
 	}
 	
 	/**
@@ -50,6 +64,28 @@ public class TableControl extends AbstractComponent {
 		return tableLocator;
 	}
 
+	/**
+	 * Enables reading of table contents by JavaScript. A whole page of rows
+	 * or a single row is then read in one browser round trip instead of two
+	 * round trips per cell and row search on a page is done in the browser
+	 * as well. Cell content is the value of a form field or the trimmed text
+	 * content of the cell. Disabled by default.
+	 * <p>Mapped to configuration property: selenium.table.scripted
+	 * @param scriptedReads whether to read the table by JavaScript
+	 */
+	@Value("${selenium.table.scripted:false}")
+	public void setScriptedReads(boolean scriptedReads) {
+		this.scriptedReads = scriptedReads;
+	}
+	
+	/**
+	 * Returns whether the table contents are read by JavaScript.
+	 * @return the scriptedReads
+	 */
+	public boolean isScriptedReads() {
+		return scriptedReads;
+	}
+
 	/**
 	 * Get the previous page button locator.
 	 * 
@@ -189,27 +225,108 @@ public class TableControl extends AbstractComponent {
 		return "/th";
 	}
 	
+	/**
+	 * Returns a locator of a row, compiled once per table locator.
+	 * @param rowNumber row number starting from 1
+	 * @return row locator
+	 */
+	protected String getRowLocator(int rowNumber) {
+		if (rowTemplate == null) {
+			rowTemplate = new LocatorTemplate("xpath=" + getTableLocator() + getRowLocator() + "[{0}]");
+		}
+		return rowTemplate.bind(rowNumber);
+	}
+	
+	/**
+	 * Returns a locator of a cell, compiled once per table locator.
+	 * @param rowNumber row number starting from 1
+	 * @param cellNumber cell number starting from 1
+	 * @return cell locator
+	 */
+	protected String getCellLocator(int rowNumber, int cellNumber) {
+		if (cellTemplate == null) {
+			cellTemplate = new LocatorTemplate("xpath=" + getTableLocator() + getRowLocator() + "[{0}]"
+					+ getCellLocator() + "[{1}]");
+		}
+		return cellTemplate.bind(rowNumber, cellNumber);
+	}
+	
+	/**
+	 * Returns a locator of a header cell, compiled once per table locator.
+	 * @param columnNumber column number starting from 1
+	 * @return header cell locator
+	 */
+	protected String getHeaderCellLocator(int columnNumber) {
+		if (headerCellTemplate == null) {
+			headerCellTemplate = new LocatorTemplate("xpath=" + getTableLocator() + getHeaderLocator()
+					+ getHeaderCellLocator() + "[{0}]");
+		}
+		return headerCellTemplate.bind(columnNumber);
+	}
+	
+	/**
+	 * Returns the table header. The header is read from the page right away
+	 * and cached until the table locator changes or the
+	 * {@link com.pageobject.controller.BrowserController#getNavigationEpoch() navigation epoch}
+	 * of the browser changes, e.g. when another page of the table is
+	 * displayed. Rows read in the same epoch share it, so a row looked up by
+	 * column name later still uses the header of its own page.
+	 * 
+	 * @return table header
+	 */
+	public TableHeader getHeader() {
+		long epoch = browser.getNavigationEpoch();
+		if (header == null || headerEpoch != epoch) {
+			header = new TableHeader(readHeader());
+			headerEpoch = epoch;
+		}
+		return header;
+	}
+	
+	/**
+	 * Forgets the cached table header. Call it if the header may have changed
+	 * other way than using this control.
+	 */
+	public void resetHeader() {
+		header = null;
+	}
+	
+	/**
+	 * Reads header cell texts from the page.
+	 * 
+	 * @return header cell texts in column order
+	 */
+	private List<String> readHeader() {
+		List<String> columnNames = new ArrayList<String>();
+		if (scriptedReads) {
+			TableRow[] rows = TableScripts.toRows(browser.executeScript(TableScripts.ROWS_SCRIPT,
+					getTableLocator() + getHeaderLocator(), "." + getHeaderCellLocator()));
+			if (rows.length > 0) {
+				for (int i = 1; i <= rows[0].getCellCount(); i++) {
+					columnNames.add(rows[0].getCell(i));
+				}
+			}
+			return columnNames;
+		}
+		
+		int columnNumber = 1;
+		while (isElementPresentNow(getHeaderCellLocator(columnNumber))) {
+			columnNames.add(getText(getHeaderCellLocator(columnNumber)));
+			columnNumber++;
+		}
+		return columnNames;
+	}
+	
 	/**
 	 * Finds a column based on a header cell text, returning number of the
 	 * column or <code>null</code> if none was found.
+	 * The header is read only once, see {@link #getHeader()}.
 	 * 
 	 * @param headerCellText
 	 * @return column number starting from 1 or <code>null</code> if not found
 	 */
 	public Integer findColumn(String headerCellText) {
-		String headerCellLocator = tableLocator + getHeaderLocator() + getHeaderCellLocator();
-		int columnNumber = 1;
-		
-		while(isElementPresent(headerCellLocator + "[" + columnNumber + "]")) {
-			String thText = getText(headerCellLocator + "[" + columnNumber + "]");
-			if(thText.contains(headerCellText)) {
-				return columnNumber;
-			}
-			
-			columnNumber++;
-		}
-		
-		return null;
+		return getHeader().indexOf(headerCellText);
 	}
 	
 	/**
@@ -228,10 +345,9 @@ public class TableControl extends AbstractComponent {
 					"Configure attribute name and value to check selected rows.");
 		}
 		
-		String rowLocator = getTableLocator() + getRowLocator() + "[" + rowNumber + "]";
 		String attributeValue;
 		try {
-			attributeValue = browser.getElementAttribute("xpath=" + rowLocator, rowAttrName);
+			attributeValue = browser.getElementAttribute(getRowLocator(rowNumber), rowAttrName);
 		} catch (Exception e) {
 			return false;
 		}
@@ -244,7 +360,7 @@ public class TableControl extends AbstractComponent {
 	 */
 	public int getRowCount() {
 		int rowCount = getRowCountOnPage();
-		while (isElementPresent(nextPageButton)) {
+		while (isElementPresentNow(nextPageButton)) {
 			click(nextPageButton);
 			rowCount += getRowCountOnPage();
 		}
@@ -257,7 +373,7 @@ public class TableControl extends AbstractComponent {
 	 */
 	private int getRowCountOnPage() {
 		String rowInTable = getTableLocator() + getRowLocator();
-		return browser.getElementCount("xpath=" + rowInTable);
+		return getElementCountNow("xpath=" + rowInTable);
 	}
 	
 
@@ -292,7 +408,7 @@ public class TableControl extends AbstractComponent {
 			return rowNumber;
 		}
 		
-		while (isElementPresent(nextPageButton)) {
+		while (isElementPresentNow(nextPageButton)) {
 			click(nextPageButton);
 			rowNumber = findRowOnPage(cellValues);
 			if (rowNumber != null) {
@@ -304,11 +420,14 @@ public class TableControl extends AbstractComponent {
 	}
 	
 	private Integer findRowOnPage(String[] cellValues) {
-		String rowLocator = getTableLocator() + getRowLocator(); 
-
+		if (scriptedReads) {
+			return TableScripts.toRowNumber(browser.executeScript(TableScripts.FIND_ROW_SCRIPT,
+					getTableLocator() + getRowLocator(), Arrays.asList(cellValues)));
+		}
+		
 		int rowNumber = 1;
-		while (isElementPresent("xpath=" + rowLocator + "[" + rowNumber + "]")) {
-			String rowContent = browser.getElementValue("xpath=" + rowLocator + "[" + rowNumber + "]");
+		while (isElementPresentNow(getRowLocator(rowNumber))) {
+			String rowContent = browser.getElementValue(getRowLocator(rowNumber));
 			boolean result = true;
 			for (String cell : cellValues) {
 				if (rowContent.indexOf(cell) == -1) {
@@ -359,17 +478,27 @@ public class TableControl extends AbstractComponent {
 	}
 
 	/**
-	 * Returns a row content of a given row.
+	 * Returns a row content of a given row. Typed cell values of the row are
+	 * parsed by the {@link FormattingService} of this control.
 	 * @param rowNumber number of row starting from 1
 	 * @return row control
 	 */
 	public TableRow getRowOnPage(int rowNumber) {
-		TableRow row = new TableRow();
+		TableRow row;
+		if (scriptedReads) {
+			TableRow[] rows = readRows(getTableLocator() + getRowLocator() + "[" + rowNumber + "]");
+			row = rows.length > 0 ? rows[0] : new TableRow();
+			row.setHeader(getHeader());
+			row.setFormattingService(formattingService);
+			return row;
+		}
 		
-		String cellLocator = getTableLocator() + getRowLocator() + "[" + rowNumber + "]" + getCellLocator();
+		row = new TableRow();
+		row.setHeader(getHeader());
+		row.setFormattingService(formattingService);
 		int cellNumber = 1;
-		while (isElementPresent("xpath=" + cellLocator + "[" + cellNumber + "]")) {
-			String cellContent = browser.getElementValue("xpath=" + cellLocator + "[" + cellNumber + "]");
+		while (isElementPresentNow(getCellLocator(rowNumber, cellNumber))) {
+			String cellContent = browser.getElementValue(getCellLocator(rowNumber, cellNumber));
 			row.addCell(cellNumber, cellContent);
 			cellNumber++;
 		}
@@ -377,6 +506,40 @@ public class TableControl extends AbstractComponent {
 		return row;
 	}
 
+	/**
+	 * Returns all rows on the currently displayed page of the table.
+	 * Reads the whole page in one round trip if scripted reads are enabled.
+	 * @return row controls, empty list if there are no rows
+	 * @see #setScriptedReads(boolean)
+	 */
+	public List<TableRow> getRowsOnPage() {
+		if (scriptedReads) {
+			return new ArrayList<TableRow>(Arrays.asList(readRows(getTableLocator() + getRowLocator())));
+		}
+		
+		int rowCount = getRowCountOnPage();
+		List<TableRow> rows = new ArrayList<TableRow>(rowCount);
+		for (int i = 1; i <= rowCount; i++) {
+			rows.add(getRowOnPage(i));
+		}
+		return rows;
+	}
+	
+	/**
+	 * Reads rows matching the XPath with one script call.
+	 * @param rowXPath rows to read
+	 * @return read rows
+	 */
+	private TableRow[] readRows(String rowXPath) {
+		TableRow[] rows = TableScripts.toRows(browser.executeScript(TableScripts.ROWS_SCRIPT, rowXPath, "." + getCellLocator()));
+		TableHeader tableHeader = getHeader();
+		for (TableRow row : rows) {
+			row.setHeader(tableHeader);
+			row.setFormattingService(formattingService);
+		}
+		return rows;
+	}
+
 	/**
 	 * Returns all rows in a table.
 	 * @return all row controls, empty list if the table is empty
@@ -384,23 +547,34 @@ public class TableControl extends AbstractComponent {
 	public List<TableRow> getAllRows() {
 		List<TableRow> table = new ArrayList<TableRow>();
 		
-		int rowCount = getRowCountOnPage();
-		for (int i = rowCount; i > 0 ; i--) {
-			TableRow row = getRowOnPage(i);
-			table.add(0, row);
-		}
-		while (isElementPresent(nextPageButton)) {
+		table.addAll(getRowsOnPage());
+		while (isElementPresentNow(nextPageButton)) {
 			click(nextPageButton);
-			rowCount = getRowCountOnPage();
-			for (int i = rowCount; i > 0 ; i--) {
-				TableRow row = getRowOnPage(i);
-				table.add(0, row);
-			}
+			table.addAll(getRowsOnPage());
 		}
 		
 		return table;
 	}
 	
+	/**
+	 * Reads all rows of the table into a compact snapshot, page by page.
+	 * Use it instead of {@link #getAllRows()} to search or check large
+	 * tables in memory.
+	 * @return snapshot of all rows with the header of the first page
+	 */
+	public TableSnapshot getSnapshot() {
+		// read the header before paging, it is reset by paging
+		TableSnapshot.Builder snapshot = new TableSnapshot.Builder(getHeader());
+		
+		snapshot.addRows(getRowsOnPage());
+		while (isElementPresentNow(nextPageButton)) {
+			click(nextPageButton);
+			snapshot.addRows(getRowsOnPage());
+		}
+		
+		return snapshot.build(formattingService);
+	}
+	
 	/**
 	 * Clicks on a specific row in the table. Does not handle the reloading
 	 * of current page. If it should cause a page refresh, you should use 
@@ -409,14 +583,14 @@ public class TableControl extends AbstractComponent {
 	 * @param rowNumber - number of the row you want to click on
 	 */
 	public void clickOnRow(int rowNumber) {
-		click("xpath=" + getTableLocator() + getRowLocator() + "[" + rowNumber + "]");
+		click(getRowLocator(rowNumber));
 	}
 
 	/**
 	 * Display the last page of the table.
 	 */
 	public void gotoLastPage() {
-		if (isElementPresent(lastPageButton)) {
+		if (isElementPresentNow(lastPageButton)) {
 			click(lastPageButton);
 		}
 	}
@@ -425,7 +599,7 @@ public class TableControl extends AbstractComponent {
 	 * Display the first page of the table.
 	 */
 	public void gotoFirstPage() {
-		if (isElementPresent(firstPageButton)) {
+		if (isElementPresentNow(firstPageButton)) {
 			click(firstPageButton);
 		}
 	}
@@ -434,7 +608,7 @@ public class TableControl extends AbstractComponent {
 	 * Display the next page of the table.
 	 */
 	public void gotoNextPage() {
-		if (isElementPresent(nextPageButton)) {
+		if (isElementPresentNow(nextPageButton)) {
 			click(nextPageButton);
 		}
 	}
@@ -443,7 +617,7 @@ public class TableControl extends AbstractComponent {
 	 * Display the previous page of the table.
 	 */
 	public void gotoPreviousPage() {
-		if (isElementPresent(previousPageButton)) {
+		if (isElementPresentNow(previousPageButton)) {
 			click(previousPageButton);
 		}
 	}
@@ -0,0 +1,77 @@
+package com.pageobject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Header of HTML table mapping column names to column numbers.
+ * Column numbers start from 1.
+ *
+ * <p>The header is read from the page together with the table rows, see
+ * {@link TableControl#getHeader()}. Results of lookups by name are
+ * remembered, so resolving the same column repeatedly is cheap.
+ *
+ * @see TableControl#getHeader()
+ */
+public class TableHeader {
+
+	private static final Integer NOT_FOUND = 0;
+
+	private final List<String> columnNames;
+	private final Map<String, Integer> columns = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Creates a header with given column names.
+	 * @param columnNames header cell texts in column order
+	 */
+	public TableHeader(List<String> columnNames) {
+		this.columnNames = Collections.unmodifiableList(new ArrayList<String>(columnNames));
+	}
+
+	/**
+	 * Returns header cell texts in column order.
+	 * @return column names, empty list if the table has no header
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * Returns number of columns in the header.
+	 * @return column count
+	 */
+	public int getColumnCount() {
+		return getColumnNames().size();
+	}
+
+	/**
+	 * Finds a column based on a header cell text. The first column whose
+	 * header contains the given text is returned.
+	 * @param headerCellText header cell text or its part
+	 * @return column number starting from 1 or <code>null</code> if not found
+	 */
+	public Integer indexOf(String headerCellText) {
+		Integer column = columns.get(headerCellText);
+		if (column == null) {
+			column = NOT_FOUND;
+			List<String> names = getColumnNames();
+			for (int i = 0; i < names.size(); i++) {
+				if (names.get(i).contains(headerCellText)) {
+					column = i + 1;
+					break;
+				}
+			}
+			columns.put(headerCellText, column);
+		}
+		return NOT_FOUND.equals(column) ? null : column;
+	}
+
+	@Override
+	public String toString() {
+		return getColumnNames().toString();
+	}
+
+}
@@ -5,19 +5,65 @@
  */
 package com.pageobject;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
  * Contents of one row in HTML table.
  * Cell indexes start from 1.
+ * 
+ * <p>Typed getters parse cells by the {@link FormattingService} of the table
+ * on the first access and remember the result, so a cell read repeatedly as
+ * the same type is parsed only once.
  *
  * @author Pavel Muller
  * @version $Revision: 102464 $
  */
 public class TableRow {
 	
+	private static final FormattingService DEFAULT_FORMATTING_SERVICE = new DefaultFormattingService();
+	
 	private List<String> cells = new ArrayList<String>();
+	private TableHeader header;
+	private FormattingService formattingService = DEFAULT_FORMATTING_SERVICE;
+	private Object[] parsedCells;
+	
+	/**
+	 * Sets the header of the table the row belongs to.
+	 * @param header table header used to resolve column names
+	 */
+	public void setHeader(TableHeader header) {
+		this.header = header;
+	}
+	
+	/**
+	 * Returns the header of the table the row belongs to.
+	 * @return table header or <code>null</code> if not known
+	 */
+	public TableHeader getHeader() {
+		return header;
+	}
+	
+	/**
+	 * Sets the service parsing typed cell values.
+	 * Default is {@link DefaultFormattingService}.
+	 * @param formattingService formatting service of the table
+	 */
+	public void setFormattingService(FormattingService formattingService) {
+		this.formattingService = formattingService;
+		this.parsedCells = null;
+	}
+	
+	/**
+	 * Returns the service parsing typed cell values.
+	 * @return formatting service
+	 */
+	public FormattingService getFormattingService() {
+		return formattingService;
+	}
 	
 	/**
 	 * Add new cell.
@@ -26,6 +72,7 @@ public class TableRow {
 	 */
 	public void addCell(int index, String cellContent) {
 		cells.add(index-1, cellContent);
+		parsedCells = null;
 	}
 	
 	/**
@@ -37,6 +84,124 @@ public class TableRow {
 		return cells.get(index-1);
 	}
 	
+	/**
+	 * Returns contents of a cell in a column with a given header.
+	 * @param columnName header cell text or its part
+	 * @return cell contents
+	 * @throws IllegalStateException if the table header is not known
+	 * @throws IllegalArgumentException if there is no such column
+	 * @see TableHeader#indexOf(String)
+	 */
+	public String getCell(String columnName) {
+		return getCell(getColumn(columnName));
+	}
+	
+	/**
+	 * Returns a cell parsed as a date.
+	 * @param index cell number starting from 1
+	 * @return cell date, <code>null</code> for an empty cell
+	 * @throws IllegalArgumentException if the cell is not a date
+	 * @see FormattingService#parseDate(String)
+	 */
+	public Date getDate(int index) {
+		Date date = (Date) getParsedCell(index, Date.class);
+		// Date is mutable, do not share the remembered one
+		return date != null ? (Date) date.clone() : null;
+	}
+	
+	/**
+	 * Returns a cell in a column with a given header parsed as a date.
+	 * @param columnName header cell text or its part
+	 * @return cell date, <code>null</code> for an empty cell
+	 * @see #getCell(String)
+	 * @see #getDate(int)
+	 */
+	public Date getDate(String columnName) {
+		return getDate(getColumn(columnName));
+	}
+	
+	/**
+	 * Returns a cell parsed as a date without time.
+	 * @param index cell number starting from 1
+	 * @return cell date, <code>null</code> for an empty cell
+	 * @throws IllegalArgumentException if the cell is not a date
+	 * @see FormattingService#parseLocalDate(String)
+	 */
+	public LocalDate getLocalDate(int index) {
+		return (LocalDate) getParsedCell(index, LocalDate.class);
+	}
+	
+	/**
+	 * Returns a cell in a column with a given header parsed as a date
+	 * without time.
+	 * @param columnName header cell text or its part
+	 * @return cell date, <code>null</code> for an empty cell
+	 * @see #getCell(String)
+	 * @see #getLocalDate(int)
+	 */
+	public LocalDate getLocalDate(String columnName) {
+		return getLocalDate(getColumn(columnName));
+	}
+	
+	/**
+	 * Returns a cell parsed as a number.
+	 * @param index cell number starting from 1
+	 * @return cell number, <code>null</code> for an empty cell
+	 * @throws IllegalArgumentException if the cell is not a number
+	 * @see FormattingService#parseNumber(String)
+	 */
+	public BigDecimal getNumber(int index) {
+		return (BigDecimal) getParsedCell(index, BigDecimal.class);
+	}
+	
+	/**
+	 * Returns a cell in a column with a given header parsed as a number.
+	 * @param columnName header cell text or its part
+	 * @return cell number, <code>null</code> for an empty cell
+	 * @see #getCell(String)
+	 * @see #getNumber(int)
+	 */
+	public BigDecimal getNumber(String columnName) {
+		return getNumber(getColumn(columnName));
+	}
+	
+	/**
+	 * Returns the remembered value of a cell if it has the requested type,
+	 * otherwise parses the cell and remembers the value.
+	 */
+	private Object getParsedCell(int index, Class<?> type) {
+		String cell = getCell(index);
+		if (cell == null || cell.trim().isEmpty()) {
+			return null;
+		}
+		if (parsedCells == null) {
+			parsedCells = new Object[cells.size()];
+		}
+		Object value = parsedCells[index-1];
+		if (!type.isInstance(value)) {
+			if (type == Date.class) {
+				value = formattingService.parseDate(cell);
+			} else if (type == LocalDate.class) {
+				value = formattingService.parseLocalDate(cell);
+			} else {
+				value = formattingService.parseNumber(cell);
+			}
+			parsedCells[index-1] = value;
+		}
+		return value;
+	}
+	
+	private int getColumn(String columnName) {
+		if (header == null) {
+			throw new IllegalStateException("Table header is not known, cannot find column '" + columnName + "'");
+		}
+		Integer index = header.indexOf(columnName);
+		if (index == null) {
+			throw new IllegalArgumentException("Column '" + columnName + "' not found in table header " + header);
+		}
+		return index;
+	}
+	
 	/**
 	 * Returns number of cells in a row.
 	 * @return cell count
@@ -0,0 +1,113 @@
+package com.pageobject;
+
+import java.util.List;
+
+/**
+ * JavaScript snippets used by {@link TableControl} to read a table within a
+ * single browser round trip. The XPaths and values are passed as script
+ * arguments, see
+ * {@link com.pageobject.controller.BrowserController#executeScript(String, Object...)}.
+ */
+public final class TableScripts {
+
+	/**
+	 * Function returning trimmed value of a form field or text content of any
+	 * other element.
+	 */
+	private static final String CELL_VALUE_FUNCTION =
+			"function cellValue(e) {"
+			+ " var v = (e.value !== undefined && e.value !== null) ? e.value : e.textContent;"
+			+ " return v === null ? '' : String(v).replace(/^\\s+|\\s+$/g, '');"
+			+ " }";
+
+	private static final String SNAPSHOT_FUNCTION =
+			"function nodes(xpath, context) {"
+			+ " return document.evaluate(xpath, context, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+			+ " }";
+
+	/**
+	 * Script reading all cells of rows. Expects the absolute XPath of the
+	 * rows as <code>arguments[0]</code> and the XPath of cells relative to a
+	 * row, e.g. <code>./td</code>, as <code>arguments[1]</code>. Returns an
+	 * array of rows, each of them an array of cell values.
+	 */
+	public static final String ROWS_SCRIPT =
+			CELL_VALUE_FUNCTION + SNAPSHOT_FUNCTION
+			+ " var rows = nodes(arguments[0], document);"
+			+ " var result = [];"
+			+ " for (var i = 0; i < rows.snapshotLength; i++) {"
+			+ "  var cells = nodes(arguments[1], rows.snapshotItem(i));"
+			+ "  var row = [];"
+			+ "  for (var j = 0; j < cells.snapshotLength; j++) {"
+			+ "   row.push(cellValue(cells.snapshotItem(j)));"
+			+ "  }"
+			+ "  result.push(row);"
+			+ " }"
+			+ " return result;";
+
+	/**
+	 * Script searching for the first row containing all given values.
+	 * Expects the absolute XPath of the rows as <code>arguments[0]</code> and
+	 * the array of values as <code>arguments[1]</code>. Returns the row number
+	 * starting from 1 or 0 if no row matches.
+	 */
+	public static final String FIND_ROW_SCRIPT =
+			CELL_VALUE_FUNCTION + SNAPSHOT_FUNCTION
+			+ " var rows = nodes(arguments[0], document);"
+			+ " var values = arguments[1];"
+			+ " for (var i = 0; i < rows.snapshotLength; i++) {"
+			+ "  var content = cellValue(rows.snapshotItem(i));"
+			+ "  var found = true;"
+			+ "  for (var j = 0; j < values.length && found; j++) {"
+			+ "   found = content.indexOf(values[j]) != -1;"
+			+ "  }"
+			+ "  if (found) {"
+			+ "   return i + 1;"
+			+ "  }"
+			+ " }"
+			+ " return 0;";
+
+	private TableScripts() {
+	}
+
+	/**
+	 * Converts a script result to a row number.
+	 *
+	 * @param result value returned by {@link #FIND_ROW_SCRIPT}
+	 * @return row number starting from 1 or <code>null</code> if not found
+	 */
+	static Integer toRowNumber(Object result) {
+		if (!(result instanceof Number)) {
+			return null;
+		}
+		int rowNumber = ((Number) result).intValue();
+		return rowNumber > 0 ? rowNumber : null;
+	}
+
+	/**
+	 * Converts a script result to table rows.
+	 *
+	 * @param result value returned by {@link #ROWS_SCRIPT}
+	 * @return table rows
+	 */
+	static TableRow[] toRows(Object result) {
+		if (!(result instanceof List)) {
+			return new TableRow[0];
+		}
+		List<?> rows = (List<?>) result;
+		TableRow[] tableRows = new TableRow[rows.size()];
+		for (int i = 0; i < tableRows.length; i++) {
+			TableRow row = new TableRow();
+			Object cells = rows.get(i);
+			if (cells instanceof List) {
+				int cellNumber = 1;
+				for (Object cell : (List<?>) cells) {
+					row.addCell(cellNumber++, cell == null ? null : cell.toString());
+				}
+			}
+			tableRows[i] = row;
+		}
+		return tableRows;
+	}
+
+}
@@ -0,0 +1,358 @@
+package com.pageobject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of table contents, read once and searched in memory.
+ * Row and column numbers start from 1.
+ *
+ * <p>Cells are stored by columns in plain arrays and equal texts are stored
+ * only once, so even large paged tables take little memory. Lookups of a
+ * cell value in a column use an index built on the first lookup in the
+ * column.
+ *
+ * @see TableControl#getSnapshot()
+ */
+public class TableSnapshot {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final TableHeader header;
+	private final String[][] columns;
+	private final int rowCount;
+	private final FormattingService formattingService;
+	private final List<Map<String, Integer>> indexes;
+
+	private TableSnapshot(TableHeader header, String[][] columns, int rowCount, FormattingService formattingService) {
+		this.header = header;
+		this.columns = columns;
+		this.rowCount = rowCount;
+		this.formattingService = formattingService;
+		this.indexes = new ArrayList<Map<String, Integer>>(Collections.<Map<String, Integer>>nCopies(columns.length, null));
+	}
+
+	/**
+	 * Creates a snapshot of given rows, parsing typed values by the
+	 * formatting service of the first row.
+	 * @param header table header, may be <code>null</code>
+	 * @param rows table rows
+	 * @return snapshot of the rows
+	 */
+	public static TableSnapshot of(TableHeader header, List<TableRow> rows) {
+		Builder builder = new Builder(header);
+		builder.addRows(rows);
+		FormattingService formattingService = rows.isEmpty()
+				? new DefaultFormattingService() : rows.get(0).getFormattingService();
+		return builder.build(formattingService);
+	}
+
+	/**
+	 * Returns the table header.
+	 * @return table header or <code>null</code> if not known
+	 */
+	public TableHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * Returns number of rows.
+	 * @return row count
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns number of columns, the longest row or the header.
+	 * @return column count
+	 */
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * Returns cell contents.
+	 * @param rowNumber row number starting from 1
+	 * @param columnNumber column number starting from 1
+	 * @return cell contents, <code>null</code> if the row is shorter
+	 * @throws IndexOutOfBoundsException if there is no such row or column
+	 */
+	public String getCell(int rowNumber, int columnNumber) {
+		checkRow(rowNumber);
+		return getColumnArray(columnNumber)[rowNumber - 1];
+	}
+
+	/**
+	 * Returns contents of a cell in a column with a given header.
+	 * @param rowNumber row number starting from 1
+	 * @param columnName header cell text or its part
+	 * @return cell contents
+	 * @see TableHeader#indexOf(String)
+	 */
+	public String getCell(int rowNumber, String columnName) {
+		return getCell(rowNumber, getColumnNumber(columnName));
+	}
+
+	/**
+	 * Returns a row as a {@link TableRow} parsing typed values by the
+	 * formatting service of the table.
+	 * @param rowNumber row number starting from 1
+	 * @return new row
+	 * @throws IndexOutOfBoundsException if there is no such row
+	 */
+	public TableRow getRow(int rowNumber) {
+		checkRow(rowNumber);
+		TableRow row = new TableRow();
+		row.setHeader(header);
+		row.setFormattingService(formattingService);
+		int cellCount = columns.length;
+		while (cellCount > 0 && columns[cellCount - 1][rowNumber - 1] == null) {
+			cellCount--;
+		}
+		for (int i = 0; i < cellCount; i++) {
+			row.addCell(i + 1, columns[i][rowNumber - 1]);
+		}
+		return row;
+	}
+
+	/**
+	 * Returns cells of a column.
+	 * @param columnNumber column number starting from 1
+	 * @return unmodifiable list of cells in row order
+	 * @throws IndexOutOfBoundsException if there is no such column
+	 */
+	public List<String> getColumn(int columnNumber) {
+		final String[] column = getColumnArray(columnNumber);
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				if (index < 0 || index >= rowCount) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rowCount);
+				}
+				return column[index];
+			}
+
+			@Override
+			public int size() {
+				return rowCount;
+			}
+		};
+	}
+
+	/**
+	 * Returns cells of a column with a given header.
+	 * @param columnName header cell text or its part
+	 * @return unmodifiable list of cells in row order
+	 * @see TableHeader#indexOf(String)
+	 */
+	public List<String> getColumn(String columnName) {
+		return getColumn(getColumnNumber(columnName));
+	}
+
+	/**
+	 * Finds the first row with a given cell value in a column.
+	 * The column is indexed on the first lookup.
+	 * @param columnNumber column number starting from 1
+	 * @param cellValue exact cell contents
+	 * @return row number starting from 1 or <code>null</code> if not found
+	 */
+	public Integer findRow(int columnNumber, String cellValue) {
+		return getIndex(columnNumber).get(cellValue);
+	}
+
+	/**
+	 * Finds the first row with a given cell value in a column with a given
+	 * header.
+	 * @param columnName header cell text or its part
+	 * @param cellValue exact cell contents
+	 * @return row number starting from 1 or <code>null</code> if not found
+	 * @see #findRow(int, String)
+	 */
+	public Integer findRow(String columnName, String cellValue) {
+		return findRow(getColumnNumber(columnName), cellValue);
+	}
+
+	/**
+	 * Finds the first row containing each of given values in one of its
+	 * cells, like {@link TableControl#findRow(String[])} does on a page.
+	 * @param cellValues cell values to search. Not only exact cell contents but substrings too.
+	 * @return row number starting from 1 or <code>null</code> if not found
+	 */
+	public Integer findRow(String[] cellValues) {
+		for (int row = 0; row < rowCount; row++) {
+			boolean result = true;
+			for (String cellValue : cellValues) {
+				if (!rowContains(row, cellValue)) {
+					result = false;
+					break;
+				}
+			}
+			if (result) {
+				return row + 1;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a snapshot of rows whose cell in a column contains a text.
+	 * @param columnNumber column number starting from 1
+	 * @param text cell contents or its part
+	 * @return snapshot of matching rows
+	 */
+	public TableSnapshot filter(int columnNumber, String text) {
+		String[] column = getColumnArray(columnNumber);
+		int[] matches = new int[rowCount];
+		int matchCount = 0;
+		for (int row = 0; row < rowCount; row++) {
+			if (column[row] != null && column[row].contains(text)) {
+				matches[matchCount++] = row;
+			}
+		}
+
+		String[][] filtered = new String[columns.length][];
+		for (int i = 0; i < columns.length; i++) {
+			filtered[i] = new String[matchCount];
+			for (int j = 0; j < matchCount; j++) {
+				filtered[i][j] = columns[i][matches[j]];
+			}
+		}
+		return new TableSnapshot(header, filtered, matchCount, formattingService);
+	}
+
+	/**
+	 * Returns a snapshot of rows whose cell in a column with a given header
+	 * contains a text.
+	 * @param columnName header cell text or its part
+	 * @param text cell contents or its part
+	 * @return snapshot of matching rows
+	 * @see #filter(int, String)
+	 */
+	public TableSnapshot filter(String columnName, String text) {
+		return filter(getColumnNumber(columnName), text);
+	}
+
+	private boolean rowContains(int row, String cellValue) {
+		for (String[] column : columns) {
+			if (column[row] != null && column[row].contains(cellValue)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized Map<String, Integer> getIndex(int columnNumber) {
+		String[] column = getColumnArray(columnNumber);
+		Map<String, Integer> index = indexes.get(columnNumber - 1);
+		if (index == null) {
+			index = new HashMap<String, Integer>();
+			for (int row = rowCount - 1; row >= 0; row--) {
+				if (column[row] != null) {
+					index.put(column[row], row + 1);
+				}
+			}
+			indexes.set(columnNumber - 1, index);
+		}
+		return index;
+	}
+
+	private String[] getColumnArray(int columnNumber) {
+		if (columnNumber < 1 || columnNumber > columns.length) {
+			throw new IndexOutOfBoundsException("Column " + columnNumber + " not in 1.." + columns.length);
+		}
+		return columns[columnNumber - 1];
+	}
+
+	private void checkRow(int rowNumber) {
+		if (rowNumber < 1 || rowNumber > rowCount) {
+			throw new IndexOutOfBoundsException("Row " + rowNumber + " not in 1.." + rowCount);
+		}
+	}
+
+	private int getColumnNumber(String columnName) {
+		if (header == null) {
+			throw new IllegalStateException("Table header is not known, cannot find column '" + columnName + "'");
+		}
+		Integer index = header.indexOf(columnName);
+		if (index == null) {
+			throw new IllegalArgumentException("Column '" + columnName + "' not found in table header " + header);
+		}
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return "TableSnapshot" + (header != null ? header : "") + " of " + rowCount + " rows";
+	}
+
+	/**
+	 * Collects rows page by page into column arrays, storing equal texts
+	 * once.
+	 */
+	static class Builder {
+		private final TableHeader header;
+		private final Map<String, String> texts = new HashMap<String, String>();
+		private String[][] columns;
+		private int rowCount;
+
+		Builder(TableHeader header) {
+			this.header = header;
+			int columnCount = header != null ? header.getColumnCount() : 0;
+			this.columns = new String[columnCount][INITIAL_CAPACITY];
+		}
+
+		void addRows(List<TableRow> rows) {
+			for (TableRow row : rows) {
+				addRow(row);
+			}
+		}
+
+		void addRow(TableRow row) {
+			int cellCount = row.getCellCount();
+			if (cellCount > columns.length) {
+				int oldLength = columns.length;
+				int capacity = oldLength > 0 ? columns[0].length : INITIAL_CAPACITY;
+				columns = Arrays.copyOf(columns, cellCount);
+				for (int i = oldLength; i < cellCount; i++) {
+					columns[i] = new String[capacity];
+				}
+			}
+			if (columns.length > 0 && rowCount == columns[0].length) {
+				for (int i = 0; i < columns.length; i++) {
+					columns[i] = Arrays.copyOf(columns[i], rowCount * 2);
+				}
+			}
+			for (int i = 0; i < cellCount; i++) {
+				columns[i][rowCount] = share(row.getCell(i + 1));
+			}
+			rowCount++;
+		}
+
+		private String share(String text) {
+			if (text == null) {
+				return null;
+			}
+			String shared = texts.get(text);
+			if (shared == null) {
+				texts.put(text, text);
+				shared = text;
+			}
+			return shared;
+		}
+
+		TableSnapshot build(FormattingService formattingService) {
+			String[][] trimmed = new String[columns.length][];
+			for (int i = 0; i < columns.length; i++) {
+				trimmed[i] = columns[i].length == rowCount ? columns[i] : Arrays.copyOf(columns[i], rowCount);
+			}
+			return new TableSnapshot(header, trimmed, rowCount, formattingService);
+		}
+	}
+
+}
@@ -17,6 +17,7 @@ import com.pageobject.DefaultFormattingService;
 import com.pageobject.FormattingService;
 import com.pageobject.TableControl;
 import com.pageobject.controller.BrowserController;
+import com.pageobject.controller.WaitCondition;
 
 /**
  * Base class for reusable web based automated test components managed by
@@ -45,6 +46,7 @@ public abstract class AbstractComponent {
 	protected BrowserController browser;
 	protected String url;
 	protected String context = DEFAULT_CONTEXT;
+	protected boolean observerWaits = false;
 
 	protected FormattingService formattingService = new DefaultFormattingService();
 
@@ -90,6 +92,21 @@ public abstract class AbstractComponent {
 		this.url = url;
 	}
 
+	/**
+	 * Makes {@link #waitForElementPresent(String, long)} watch the page
+	 * changes inside the browser instead of polling it. Default is
+	 * <code>false</code>. Mapped to configuration property:
+	 * selenium.wait.observer
+	 * 
+	 * @param observerWaits
+	 *            whether to wait for elements inside the browser
+	 * @see BrowserController#waitForElementPresentInBrowser(String, long)
+	 */
+	@Value("${selenium.wait.observer:false}")
+	public void setObserverWaits(boolean observerWaits) {
+		this.observerWaits = observerWaits;
+	}
+
 	/**
 	 * Set optional {@link FormattingService}. Default is
 	 * {@link DefaultFormattingService}.
@@ -231,6 +248,20 @@ public abstract class AbstractComponent {
 		return browser.isElementPresent(locator);
 	}
 
+	/**
+	 * Checks whether an element is on a current page right now, without
+	 * waiting for the implicit timeout if it is not.
+	 * 
+	 * @see {@link BrowserController#isElementPresentNow(String)}
+	 * 
+	 * @param locator
+	 *            element's locator.
+	 * @return true if elements is present, false otherwise.
+	 */
+	public boolean isElementPresentNow(String locator) {
+		return browser.isElementPresentNow(locator);
+	}
+
 	/**
 	 * Checks whether the web element is enabled on current web page.
 	 * 
@@ -256,6 +287,20 @@ public abstract class AbstractComponent {
 		return browser.getElementCount(locator);
 	}
 
+	/**
+	 * Counts occurrences of an element on a current page right now, without
+	 * waiting for the implicit timeout if there is none.
+	 * 
+	 * @see {@link BrowserController#getElementCountNow(String)}
+	 * 
+	 * @param locator
+	 *            element's locator.
+	 * @return number of element occurrences found on current page.
+	 */
+	public int getElementCountNow(String locator) {
+		return browser.getElementCountNow(locator);
+	}
+
 	/**
 	 * Returns the value of the specified element.
 	 * 
@@ -303,6 +348,8 @@ public abstract class AbstractComponent {
 	 * is not loaded yet.
 	 * 
 	 * @see {@link BrowserController#waitForElementPresent(String, long)}
+	 * @see {@link BrowserController#waitForElementPresentInBrowser(String, long)}
+	 * @see #setObserverWaits(boolean)
 	 * 
 	 * @param locator
 	 *            element's locator (f.e. an XPath expression).
@@ -310,7 +357,25 @@ public abstract class AbstractComponent {
 	 *            number of seconds to wait.
 	 */
 	public void waitForElementPresent(String locator, long waitSeconds) {
-		browser.waitForElementPresent(locator, waitSeconds);
+		if (observerWaits) {
+			browser.waitForElementPresentInBrowser(locator, waitSeconds);
+		} else {
+			browser.waitForElementPresent(locator, waitSeconds);
+		}
+	}
+
+	/**
+	 * Waits until the condition is fulfilled.
+	 * 
+	 * @see {@link BrowserController#waitUntil(WaitCondition, long)}
+	 * 
+	 * @param condition
+	 *            the condition that is supposed to be fulfilled.
+	 * @param timeout
+	 *            timeout in milliseconds.
+	 */
+	public void waitUntil(WaitCondition condition, long timeout) {
+		browser.waitUntil(condition, timeout);
 	}
 
 	/**
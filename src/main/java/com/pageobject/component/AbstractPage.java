@@ -24,10 +24,15 @@ import com.pageobject.controller.BrowserController;
  */
 public abstract class AbstractPage extends AbstractComponent {
 	
+	protected static final long DEFAULT_IDLE_QUIET_PERIOD = 300;
+	
+	private long validatedEpoch = -1;
+	
 	/**
 	 * Navigates to a given page.
 	 * Optionally you may specify init parameter to pass to the page.
-	 * <p>This method creates a prototype page bean, call {@link #assertValidPage()} and
+	 * <p>This method creates a prototype page bean, looked up by its bean name
+	 * cached per page class, call {@link #assertValidPage()} and
 	 * {@link #init(Object...)} with optioanal init parameters.
 	 * @param pageClass class with {@link Page} annotation
 	 * @param params optional parameters to pass to the page
@@ -40,7 +45,7 @@ public abstract class AbstractPage extends AbstractComponent {
 		
 		// get page prototype bean from Spring context
 		try {
-			page = applicationContext.getBean(pageClass);
+			page = PageLookup.getPage(applicationContext, pageClass);
 		} catch (NoSuchBeanDefinitionException e) {
 			IllegalArgumentException ex = new IllegalArgumentException("Page '" + pageClass.getSimpleName() + "' not found. " +
 					"Is it configured properly? Use @Page annotation.", e);
@@ -77,6 +82,20 @@ public abstract class AbstractPage extends AbstractComponent {
 	 * @see ValidPageAspect
 	 */
 	public abstract boolean isValidPage();
+	
+	/**
+	 * Returns the navigation epoch of the browser when {@link ValidPageAspect}
+	 * last found the page valid.
+	 * @return the epoch or -1 if the page has not been validated yet
+	 * @see BrowserController#getNavigationEpoch()
+	 */
+	long getValidatedEpoch() {
+		return validatedEpoch;
+	}
+	
+	void setValidatedEpoch(long validatedEpoch) {
+		this.validatedEpoch = validatedEpoch;
+	}
 
 	/**
 	 * Close current browser window and select the main one.
@@ -132,6 +151,36 @@ public abstract class AbstractPage extends AbstractComponent {
 		browser.waitForPageToLoad(timeout);
 	}
 	
+	/**
+	 * Waits until the page has no pending AJAX requests or short timers for
+	 * the default quiet period of {@value #DEFAULT_IDLE_QUIET_PERIOD} ms.
+	 * 
+	 * @see {@link BrowserController#waitForIdle(long, long)}
+	 * 
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed in
+	 *            milliseconds.
+	 */
+	public void waitForIdle(long timeout) {
+		browser.waitForIdle(DEFAULT_IDLE_QUIET_PERIOD, timeout);
+	}
+	
+	/**
+	 * Waits until the page has no pending AJAX requests or short timers for
+	 * the given quiet period.
+	 * 
+	 * @see {@link BrowserController#waitForIdle(long, long)}
+	 * 
+	 * @param quietPeriod
+	 *            how long the page has to stay idle, in milliseconds.
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed in
+	 *            milliseconds.
+	 */
+	public void waitForIdle(long quietPeriod, long timeout) {
+		browser.waitForIdle(quietPeriod, timeout);
+	}
+	
 	/**
 	 * Returns {@link TableControl} for specified table locator.
 	 * Creates new table control for each call.
@@ -5,6 +5,9 @@
  */
 package com.pageobject.component;
 
+import java.io.File;
+import java.util.Map;
+
 import org.junit.Rule;
 import org.junit.rules.ExternalResource;
 import org.junit.rules.RuleChain;
@@ -12,15 +15,20 @@ import org.junit.rules.TestRule;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
 import org.junit.runner.RunWith;
+import org.junit.runners.model.Statement;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.DependencyInjectionTestExecutionListener;
 import org.springframework.test.context.support.DirtiesContextTestExecutionListener;
 
+import com.pageobject.controller.CommandCounter;
+
 /**
  * Base class for automated web page tests.
  * (You should reimplement the testRule if you want to use @After to tear down something.)
+ * <p>Run the test with {@link ParallelSpringRunner} or within {@link ParallelSuite}
+ * to execute tests concurrently, each with its own browser.
  * 
  * @author Zdenek Jonas
  * @author Pavel Muller
@@ -31,8 +39,12 @@ import org.springframework.test.context.support.DirtiesContextTestExecutionListe
 @RunWith(SpringJUnit4ClassRunner.class)
 public abstract class AbstractTest extends AbstractComponent {
 	protected static final String DEFAULT_SCREENSHOT_DIR = "/tmp/";
+	protected static final int BUDGET_REPORTED_LOCATORS = 5;
 
 	protected String screenshotDir = DEFAULT_SCREENSHOT_DIR;
+	protected boolean screenshotDeduplication = false;
+	protected long screenshotMaxSize = 0;
+	protected int screenshotRetentionDays = 0;
 	
 	/**
 	 * Screenshot directory to put images after test failures.
@@ -45,6 +57,39 @@ public abstract class AbstractTest extends AbstractComponent {
 		this.screenshotDir = screenshotDir;
 	}
 	
+	/**
+	 * Store identical screenshots only once in a content-addressed store
+	 * within the screenshot directory. Default is <code>false</code>.
+	 * <p>Mapped to configuration property: selenium.screenshot.dedup
+	 * @param screenshotDeduplication whether to deduplicate screenshots
+	 * @see ScreenshotStore
+	 */
+	@Value("${selenium.screenshot.dedup:false}")
+	public void setScreenshotDeduplication(boolean screenshotDeduplication) {
+		this.screenshotDeduplication = screenshotDeduplication;
+	}
+	
+	/**
+	 * Maximum total size of deduplicated screenshots in megabytes, the oldest
+	 * are deleted first. Default is 0, i.e. unlimited.
+	 * <p>Mapped to configuration property: selenium.screenshot.maxSize
+	 * @param screenshotMaxSize size in megabytes
+	 */
+	@Value("${selenium.screenshot.maxSize:0}")
+	public void setScreenshotMaxSize(long screenshotMaxSize) {
+		this.screenshotMaxSize = screenshotMaxSize;
+	}
+	
+	/**
+	 * How many days to keep deduplicated screenshots. Default is 0, i.e. forever.
+	 * <p>Mapped to configuration property: selenium.screenshot.retentionDays
+	 * @param screenshotRetentionDays retention in days
+	 */
+	@Value("${selenium.screenshot.retentionDays:0}")
+	public void setScreenshotRetentionDays(int screenshotRetentionDays) {
+		this.screenshotRetentionDays = screenshotRetentionDays;
+	}
+	
 	/**
 	 * Capture a screen shot if test fails. 
 	 * !Be careful, failed is done after the @After method, so if you want
@@ -59,33 +104,134 @@ public abstract class AbstractTest extends AbstractComponent {
 
             String className = description.getClassName();
 			String methodName = description.getMethodName();
+			logger.info("Test " + className + "." + methodName + " failed.");
+			
+			if (screenshotDeduplication) {
+				captureScreenshotToStore(className + "." + methodName);
+				logger.info("Queued a screenshot of [{}] into [{}]", className + "." + methodName, screenshotDir);
+				return;
+			}
+			
 			String screenShotPath = screenshotDir + className + "." + methodName + ".png";
-
             captureScreenshot(screenShotPath);
-            logger.info("Test " + className + "." + methodName + " failed.");
-            logger.info("Created a screenshot [{}]", screenShotPath);
+            logger.info("Queued a screenshot [{}]", screenShotPath);
         }
 
     };
     
+    /**
+     * Counts browser commands of a test annotated by {@link CommandBudget}
+     * and fails or warns when the budget is exceeded, listing the most used
+     * locators. A failure of the test itself takes precedence.
+     */
+    public TestRule budgetRule = new TestRule() {
+    	
+    	public Statement apply(final Statement base, final Description description) {
+    		CommandBudget budget = description.getAnnotation(CommandBudget.class);
+    		if (budget == null && description.getTestClass() != null) {
+    			budget = description.getTestClass().getAnnotation(CommandBudget.class);
+    		}
+    		if (budget == null) {
+    			return base;
+    		}
+    		final CommandBudget limit = budget;
+    		return new Statement() {
+    			@Override
+    			public void evaluate() throws Throwable {
+    				CommandCounter counter = CommandCounter.start();
+    				try {
+    					base.evaluate();
+    				} finally {
+    					CommandCounter.stop();
+    				}
+    				checkBudget(description, limit, counter);
+    			}
+    		};
+    	}
+    	
+    	private void checkBudget(Description description, CommandBudget budget, CommandCounter counter) {
+    		if (counter.getCount() == 0) {
+    			logger.warn("No browser commands counted for {}, does the BrowserController report to CommandCounter?",
+    					description.getDisplayName());
+    			return;
+    		}
+    		if (counter.getCount() <= budget.value()) {
+    			logger.debug("Test {} issued {} browser commands", description.getDisplayName(), counter.getCount());
+    			return;
+    		}
+    		
+    		StringBuilder message = new StringBuilder("Test ").append(description.getDisplayName())
+    				.append(" issued ").append(counter.getCount()).append(" browser commands, budget is ")
+    				.append(budget.value()).append(". Most used locators:");
+    		for (Map.Entry<String, Integer> locator : counter.getTopLocators(BUDGET_REPORTED_LOCATORS)) {
+    			message.append("\n  ").append(locator.getValue()).append("x ").append(locator.getKey());
+    		}
+    		
+    		if (budget.fail()) {
+    			throw new AssertionError(message.toString());
+    		}
+    		logger.warn(message.toString());
+    	}
+    };
+    
     /**
      * Method to capture and save screen shot to desired path.
+     * Only the image is grabbed on the calling thread, it is saved asynchronously
+     * by {@link #getScreenshotWriter()}.
      * @param screenshotPath full path where the screen shot should be saved (with the exact file name).
      */
     protected void captureScreenshot(String screenshotPath) { 
 		try {
-			browser.captureScreenshot(screenshotPath);
+			getScreenshotWriter().write(screenshotPath, browser.getScreenshot());
 		} catch (Exception e) {
 			logger.error("Unable to capture screenshot", e) ;
 		}
 	}
     
+    /**
+     * Method to capture a screen shot and save it into the content-addressed
+     * store in the screenshot directory.
+     * @param testName name of the test the screen shot belongs to
+     * @see ScreenshotStore
+     */
+    protected void captureScreenshotToStore(String testName) {
+    	try {
+    		ScreenshotStore store = ScreenshotStore.forDirectory(new File(screenshotDir),
+    				screenshotMaxSize * 1024 * 1024, screenshotRetentionDays);
+    		getScreenshotWriter().write(store, testName, browser.getScreenshot());
+    	} catch (Exception e) {
+    		logger.error("Unable to capture screenshot", e) ;
+    	}
+    }
+    
+    /**
+     * Returns writer saving screenshots in background.
+     * Default is the writer shared by all tests, flushed on JVM shutdown.
+     * @return screenshot writer
+     */
+    protected ScreenshotWriter getScreenshotWriter() {
+    	return ScreenshotWriter.getInstance();
+    }
+    
+    /**
+     * Ends the {@link BrowserScope} of the test thread when the test is done,
+     * e.g. to return the leased driver to its pool. Keep it the outermost rule,
+     * the other rules use the browser.
+     */
+    public TestRule browserScopeRule = new ExternalResource() {
+    	
+    	@Override
+    	protected void after() {
+    		BrowserScope.endCurrentThread();
+    	}
+    };
+    
     /**
 	 * Reimplement this rule if you want to use After method to tear down
 	 * something. <b>If you use @After it's done before the screenshot rule!</b>
 	 */
     @Rule
-	public TestRule testRule = RuleChain.outerRule(new ExternalResource() {
+	public TestRule testRule = RuleChain.outerRule(browserScopeRule).around(new ExternalResource() {
 		
 		@Override
 		protected void before() throws Throwable {
@@ -96,6 +242,6 @@ public abstract class AbstractTest extends AbstractComponent {
 		protected void after() {
 			logger.info("Current test is done.");
 		}
-	}).around(screenshotRule);
+	}).around(screenshotRule).around(budgetRule);
 	
 }
@@ -0,0 +1,154 @@
+package com.pageobject.component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+
+/**
+ * Spring bean scope binding beans to the executing thread, so parallel tests
+ * in one JVM get their own {@link com.pageobject.controller.BrowserController}
+ * and browser.
+ *
+ * <p>Unlike Spring's <code>SimpleThreadScope</code> this scope supports
+ * destruction callbacks. They are run when the thread finishes its test and
+ * calls {@link #endCurrentThread()}, e.g. to return the driver leased by
+ * {@link com.pageobject.controller.WebDriverBrowserImpl} to its pool.
+ * {@link AbstractTest} does so after every test, {@link ParallelScheduler}
+ * after every test it runs.
+ *
+ * <p>{@link IndexedContextLoader} registers the scope. Other contexts
+ * register it next to {@link ComponentScopeResolver}. Declare the browser
+ * controller with a scoped proxy, so singletons and page prototypes always
+ * talk to the browser of the current thread.
+ * <pre>
+ * &lt;bean class="org.springframework.beans.factory.config.CustomScopeConfigurer"&gt;
+ *     &lt;property name="scopes"&gt;
+ *         &lt;map&gt;
+ *             &lt;entry key="browser"&gt;&lt;bean class="com.pageobject.component.BrowserScope"/&gt;&lt;/entry&gt;
+ *         &lt;/map&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="browserController" class="com.pageobject.controller.WebDriverBrowserImpl" scope="browser"&gt;
+ *     &lt;property name="driverPool" ref="driverPool"/&gt;
+ *     &lt;aop:scoped-proxy proxy-target-class="false"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * Components may use the scope too: <code>@Component("browser")</code>.
+ *
+ * @see Component
+ */
+public class BrowserScope implements Scope {
+
+	/**
+	 * Scope name to use in bean definitions and {@link Component#value()}.
+	 */
+	public static final String SCOPE_BROWSER = "browser";
+
+	private static final Logger logger = LoggerFactory.getLogger(BrowserScope.class);
+
+	/**
+	 * All scope instances, so a thread can end its scope in every context.
+	 * Held weakly, a scope is dropped with the bean factory it belongs to.
+	 */
+	private static final Map<BrowserScope, Boolean> scopes = new WeakHashMap<BrowserScope, Boolean>();
+
+	private final ThreadLocal<Map<String, Object>> beans = new ThreadLocal<Map<String, Object>>() {
+		@Override
+		protected Map<String, Object> initialValue() {
+			return new LinkedHashMap<String, Object>();
+		}
+	};
+
+	private final ThreadLocal<Map<String, Runnable>> destructionCallbacks = new ThreadLocal<Map<String, Runnable>>() {
+		@Override
+		protected Map<String, Runnable> initialValue() {
+			return new LinkedHashMap<String, Runnable>();
+		}
+	};
+
+	public BrowserScope() {
+		synchronized (scopes) {
+			scopes.put(this, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.Scope#get(java.lang.String, org.springframework.beans.factory.ObjectFactory)
+	 */
+	public Object get(String name, ObjectFactory<?> objectFactory) {
+		Map<String, Object> threadBeans = beans.get();
+		Object bean = threadBeans.get(name);
+		if (bean == null) {
+			bean = objectFactory.getObject();
+			threadBeans.put(name, bean);
+		}
+		return bean;
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.Scope#remove(java.lang.String)
+	 */
+	public Object remove(String name) {
+		destructionCallbacks.get().remove(name);
+		return beans.get().remove(name);
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.Scope#registerDestructionCallback(java.lang.String, java.lang.Runnable)
+	 */
+	public void registerDestructionCallback(String name, Runnable callback) {
+		destructionCallbacks.get().put(name, callback);
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.Scope#resolveContextualObject(java.lang.String)
+	 */
+	public Object resolveContextualObject(String key) {
+		return null;
+	}
+
+	/**
+	 * @see org.springframework.beans.factory.config.Scope#getConversationId()
+	 */
+	public String getConversationId() {
+		return Thread.currentThread().getName();
+	}
+
+	/**
+	 * Destroys all beans of this scope bound to the current thread.
+	 */
+	public void end() {
+		Map<String, Runnable> callbacks = destructionCallbacks.get();
+		for (Map.Entry<String, Runnable> callback : callbacks.entrySet()) {
+			try {
+				callback.getValue().run();
+			} catch (RuntimeException e) {
+				logger.warn("Destruction of browser scoped bean '" + callback.getKey() + "' failed", e);
+			}
+		}
+		destructionCallbacks.remove();
+		beans.remove();
+	}
+
+	/**
+	 * Destroys beans bound to the current thread in all browser scopes.
+	 * Call it when the thread finished its test.
+	 */
+	public static void endCurrentThread() {
+		List<BrowserScope> currentScopes;
+		synchronized (scopes) {
+			currentScopes = new ArrayList<BrowserScope>(scopes.keySet());
+		}
+		for (BrowserScope scope : currentScopes) {
+			scope.end();
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.pageobject.component;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of browser commands a test may issue. Placed on
+ * a test class it applies to each of its test methods, placed on a method it
+ * overrides the class budget.
+ *
+ * <pre>
+ * &#064;Test
+ * &#064;CommandBudget(40)
+ * public void findsOrderInTable() {
+ * </pre>
+ *
+ * <p>Commands are counted by the browser controller, see
+ * {@link com.pageobject.controller.CommandCounter}. The budget is an upper
+ * bound only, a test counting no command at all is reported by a warning.
+ *
+ * @see AbstractTest#budgetRule
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface CommandBudget {
+
+	/**
+	 * Maximum number of browser commands of one test.
+	 */
+	int value();
+
+	/**
+	 * Whether the test fails when the budget is exceeded, otherwise only a
+	 * warning is logged. Default is <code>true</code>.
+	 */
+	boolean fail() default true;
+
+}
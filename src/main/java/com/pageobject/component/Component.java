@@ -20,8 +20,11 @@ import java.lang.annotation.*;
  *     &lt;context:include-filter type="annotation" expression="com.aspectworks.awf.test.selenium.SeleniumComponent"/&gt;
  * &lt;/context:component-scan&gt;
  * </pre>
+ * Or let {@link IndexedContextLoader} register the components from the
+ * index written at compile time, which avoids the scan.
  *
  * @see ComponentScopeResolver
+ * @see ComponentIndex
  *
  * @author Pavel Muller
  * @version $Revision: 102464 $
@@ -34,6 +37,7 @@ public @interface Component {
 	/**
 	 * Specifies the scope to use for the annotated Spring component/bean.
 	 * Default is singleton. See bean scopes in Spring docs.
+	 * Use {@link BrowserScope#SCOPE_BROWSER} for a bean per test thread.
 	 * @return the specified scope
 	 */
 	public String value() default BeanDefinition.SCOPE_SINGLETON;
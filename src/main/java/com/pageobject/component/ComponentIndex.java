@@ -0,0 +1,162 @@
+package com.pageobject.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.AnnotationBeanNameGenerator;
+import org.springframework.context.annotation.ScopeMetadata;
+import org.springframework.context.annotation.ScopeMetadataResolver;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Index of {@link Component} classes written at compile time by
+ * {@link ComponentIndexProcessor}, so the Spring context can be built without
+ * scanning the classpath.
+ *
+ * <p>The index is a properties file {@value #LOCATION}, one line per
+ * component: its class name and scope. Indexes of all jars and directories
+ * on the classpath are merged.
+ *
+ * @see IndexedContextLoader
+ */
+public class ComponentIndex {
+
+	/**
+	 * Location of the index in every jar or classes directory.
+	 */
+	public static final String LOCATION = "META-INF/pageobject.components";
+
+	private static final Logger logger = LoggerFactory.getLogger(ComponentIndex.class);
+
+	private final ClassLoader classLoader;
+	private final Map<String, String> components;
+
+	private ComponentIndex(ClassLoader classLoader, Map<String, String> components) {
+		this.classLoader = classLoader;
+		this.components = Collections.unmodifiableMap(components);
+	}
+
+	/**
+	 * Reads all indexes visible to a class loader.
+	 * @param classLoader class loader of the components
+	 * @return merged index, empty if there is none
+	 * @throws IllegalStateException if an index cannot be read
+	 */
+	public static ComponentIndex load(ClassLoader classLoader) {
+		Map<String, String> components = new TreeMap<String, String>();
+		try {
+			Enumeration<URL> indexes = classLoader.getResources(LOCATION);
+			while (indexes.hasMoreElements()) {
+				URL index = indexes.nextElement();
+				Properties properties = new Properties();
+				InputStream in = index.openStream();
+				try {
+					properties.load(in);
+				} finally {
+					in.close();
+				}
+				for (String className : properties.stringPropertyNames()) {
+					components.put(className, properties.getProperty(className).trim());
+				}
+				logger.debug("Loaded {} components from [{}]", properties.size(), index);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read component index " + LOCATION, e);
+		}
+		return new ComponentIndex(classLoader, components);
+	}
+
+	/**
+	 * Returns indexed components.
+	 * @return class name to scope, sorted by class name
+	 */
+	public Map<String, String> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Returns whether no index was found or all indexes are empty.
+	 * @return true if there are no components
+	 */
+	public boolean isEmpty() {
+		return components.isEmpty();
+	}
+
+	/**
+	 * Registers bean definitions of indexed components, like
+	 * <code>&lt;context:component-scan&gt;</code> with {@link ComponentScopeResolver}
+	 * does, including the annotation config processors. Beans already defined
+	 * under the same name are kept.
+	 * @param registry registry to add the definitions to
+	 * @param basePackages packages of the components to register, all
+	 *        components if none is given
+	 * @return number of registered components
+	 * @throws IllegalStateException if a component class cannot be loaded
+	 */
+	public int registerComponents(BeanDefinitionRegistry registry, String... basePackages) {
+		// registers the annotation config processors too
+		AnnotatedBeanDefinitionReader reader = new AnnotatedBeanDefinitionReader(registry);
+		reader.setScopeMetadataResolver(new ScopeMetadataResolver() {
+			public ScopeMetadata resolveScopeMetadata(BeanDefinition definition) {
+				ScopeMetadata metadata = new ScopeMetadata();
+				metadata.setScopeName(components.get(definition.getBeanClassName()));
+				return metadata;
+			}
+		});
+		AnnotationBeanNameGenerator nameGenerator = new AnnotationBeanNameGenerator();
+
+		int count = 0;
+		for (String className : components.keySet()) {
+			if (!isInPackages(className, basePackages)) {
+				continue;
+			}
+			Class<?> componentClass;
+			try {
+				componentClass = ClassUtils.forName(className, classLoader);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Indexed component " + className + " not found, is "
+						+ LOCATION + " up to date?", e);
+			}
+
+			String beanName = nameGenerator.generateBeanName(new AnnotatedGenericBeanDefinition(componentClass), registry);
+			if (registry.containsBeanDefinition(beanName)) {
+				logger.debug("Component '{}' is already defined, skipping indexed {}", beanName, className);
+				continue;
+			}
+			registerBean(reader, componentClass, beanName);
+			count++;
+		}
+		return count;
+	}
+
+	// the only overload taking a bean name has a generic varargs parameter of qualifiers, none are given
+	@SuppressWarnings("unchecked")
+	private static void registerBean(AnnotatedBeanDefinitionReader reader, Class<?> componentClass, String beanName) {
+		reader.registerBean(componentClass, beanName);
+	}
+
+	private static boolean isInPackages(String className, String[] basePackages) {
+		if (basePackages == null || basePackages.length == 0) {
+			return true;
+		}
+		for (String basePackage : basePackages) {
+			if (className.startsWith(basePackage + ".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
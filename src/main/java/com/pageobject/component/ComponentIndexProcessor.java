@@ -0,0 +1,178 @@
+package com.pageobject.component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor writing the {@link ComponentIndex} of the compiled
+ * classes: every concrete class annotated with {@link Component}, directly
+ * or through an annotation like {@link Page}, with its scope.
+ *
+ * <p>The processor is registered as a service, so it runs whenever the
+ * framework is on the compile classpath. Entries of an existing index are
+ * kept on incremental compilation as long as their classes are still
+ * components.
+ *
+ * @see IndexedContextLoader
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+	private static final String COMPONENT = Component.class.getName();
+
+	private final Map<String, String> components = new TreeMap<String, String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			collect(element);
+		}
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void collect(Element element) {
+		if (!(element instanceof TypeElement)) {
+			return;
+		}
+		TypeElement type = (TypeElement) element;
+		if (isCandidate(type)) {
+			String scope = findScope(type, new HashSet<String>());
+			if (scope != null) {
+				components.put(processingEnv.getElementUtils().getBinaryName(type).toString(), scope);
+			}
+		}
+		for (Element enclosed : type.getEnclosedElements()) {
+			collect(enclosed);
+		}
+	}
+
+	/**
+	 * Concrete top level or static nested classes, like component scan.
+	 */
+	private static boolean isCandidate(TypeElement type) {
+		return type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT)
+				&& (type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC));
+	}
+
+	/**
+	 * Returns the scope of the nearest {@link Component} annotation, looking
+	 * through annotations of annotations.
+	 */
+	private String findScope(Element annotated, Set<String> visited) {
+		for (AnnotationMirror annotation : annotated.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String name = annotationType.getQualifiedName().toString();
+			if (name.equals(COMPONENT)) {
+				return getScope(annotation);
+			}
+			if (name.startsWith("java.lang.annotation.") || !visited.add(name)) {
+				continue;
+			}
+			String scope = findScope(annotationType, visited);
+			if (scope != null) {
+				return scope;
+			}
+		}
+		return null;
+	}
+
+	private String getScope(AnnotationMirror component) {
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+				processingEnv.getElementUtils().getElementValuesWithDefaults(component);
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+			if (value.getKey().getSimpleName().contentEquals("value")) {
+				return String.valueOf(value.getValue().getValue());
+			}
+		}
+		return null;
+	}
+
+	private void writeIndex() {
+		mergeExistingIndex();
+		if (components.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					ComponentIndex.LOCATION);
+			Writer writer = new OutputStreamWriter(index.openOutputStream(), "UTF-8");
+			try {
+				writer.write("# Generated by " + getClass().getName() + "\n");
+				for (Map.Entry<String, String> component : components.entrySet()) {
+					writer.write(component.getKey() + "=" + component.getValue() + "\n");
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Unable to write " + ComponentIndex.LOCATION + ": " + e);
+		}
+	}
+
+	/**
+	 * Adds components of the index written by a previous compilation whose
+	 * classes were not compiled now, if they are still components.
+	 */
+	private void mergeExistingIndex() {
+		Properties existing = new Properties();
+		try {
+			FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+					ComponentIndex.LOCATION);
+			InputStream in = index.openInputStream();
+			try {
+				existing.load(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			// no previous index
+			return;
+		}
+
+		for (String className : existing.stringPropertyNames()) {
+			if (components.containsKey(className)) {
+				continue;
+			}
+			TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+			if (type != null && isCandidate(type)) {
+				String scope = findScope(type, new HashSet<String>());
+				if (scope != null) {
+					components.put(className, scope);
+				}
+			}
+		}
+	}
+
+}
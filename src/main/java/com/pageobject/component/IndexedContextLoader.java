@@ -0,0 +1,62 @@
+package com.pageobject.component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.context.MergedContextConfiguration;
+import org.springframework.test.context.support.GenericXmlContextLoader;
+
+/**
+ * Test context loader registering {@link Component} beans from the
+ * {@link ComponentIndex} instead of scanning the classpath.
+ *
+ * <p>Drop the <code>&lt;context:component-scan&gt;</code> element from the
+ * XML configuration and use the loader in tests:
+ * <pre>
+ * &#64;ContextConfiguration(locations = "classpath:/test-context.xml", loader = IndexedContextLoader.class)
+ * public class LoginTest extends AbstractTest {
+ * </pre>
+ * The index is written by {@link ComponentIndexProcessor} when the
+ * components are compiled.
+ *
+ * <p>The loader also registers {@link BrowserScope} unless the context
+ * registers a scope of the same name itself.
+ */
+public class IndexedContextLoader extends GenericXmlContextLoader {
+
+	private static final Logger log = LoggerFactory.getLogger(IndexedContextLoader.class);
+
+	@Override
+	protected void customizeBeanFactory(DefaultListableBeanFactory beanFactory) {
+		super.customizeBeanFactory(beanFactory);
+		if (beanFactory.getRegisteredScope(BrowserScope.SCOPE_BROWSER) == null) {
+			beanFactory.registerScope(BrowserScope.SCOPE_BROWSER, new BrowserScope());
+		}
+	}
+
+	@Override
+	protected void loadBeanDefinitions(GenericApplicationContext context, MergedContextConfiguration mergedConfig) {
+		super.loadBeanDefinitions(context, mergedConfig);
+
+		ComponentIndex index = ComponentIndex.load(context.getClassLoader());
+		if (index.isEmpty()) {
+			log.warn("No component index " + ComponentIndex.LOCATION + " found, is "
+					+ ComponentIndexProcessor.class.getName() + " run by the compiler?");
+			return;
+		}
+		int count = index.registerComponents(context, getBasePackages(mergedConfig));
+		log.debug("Registered {} indexed components", count);
+	}
+
+	/**
+	 * Returns packages of the components to register. Default is all
+	 * indexed components.
+	 * @param mergedConfig configuration of the test context
+	 * @return package names, empty for all packages
+	 */
+	protected String[] getBasePackages(MergedContextConfiguration mergedConfig) {
+		return new String[0];
+	}
+
+}
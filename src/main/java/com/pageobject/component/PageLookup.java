@@ -0,0 +1,85 @@
+package com.pageobject.component;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+/**
+ * Looks up page prototypes by bean names cached per page class, sparing the
+ * bean type matching of {@link ApplicationContext#getBean(Class)} on every
+ * navigation. Pages are still created by Spring with their full lifecycle.
+ *
+ * <p>Names are kept per configurable context and dropped when the context is
+ * closed. Pages of other contexts and page classes not matching exactly one
+ * bean of the context are looked up by type.
+ *
+ * @see AbstractPage#navigateTo(Class, Object...)
+ */
+class PageLookup {
+
+	private static final Map<ApplicationContext, Map<Class<?>, String>> beanNames =
+			new IdentityHashMap<ApplicationContext, Map<Class<?>, String>>();
+
+	private PageLookup() {
+	}
+
+	/**
+	 * Returns a page bean of a class.
+	 * @param applicationContext context defining the page bean
+	 * @param pageClass class of the page
+	 * @return page bean
+	 * @throws BeansException if the page cannot be created, like
+	 *         {@link ApplicationContext#getBean(Class)}
+	 */
+	static <T> T getPage(ApplicationContext applicationContext, Class<T> pageClass) throws BeansException {
+		if (!(applicationContext instanceof ConfigurableApplicationContext)) {
+			// no way to learn when the context goes away
+			return applicationContext.getBean(pageClass);
+		}
+		Map<Class<?>, String> contextBeanNames = getBeanNames((ConfigurableApplicationContext) applicationContext);
+
+		String beanName = contextBeanNames.get(pageClass);
+		if (beanName == null) {
+			String[] names = applicationContext.getBeanNamesForType(pageClass);
+			if (names.length != 1) {
+				// let Spring resolve the bean or report the problem
+				return applicationContext.getBean(pageClass);
+			}
+			beanName = names[0];
+			contextBeanNames.put(pageClass, beanName);
+		}
+		return applicationContext.getBean(beanName, pageClass);
+	}
+
+	private static Map<Class<?>, String> getBeanNames(final ConfigurableApplicationContext applicationContext) {
+		synchronized (beanNames) {
+			Map<Class<?>, String> contextBeanNames = beanNames.get(applicationContext);
+			if (contextBeanNames == null) {
+				if (!applicationContext.isActive()) {
+					// a closed context would never be removed
+					return new ConcurrentHashMap<Class<?>, String>();
+				}
+				contextBeanNames = new ConcurrentHashMap<Class<?>, String>();
+				beanNames.put(applicationContext, contextBeanNames);
+				applicationContext.addApplicationListener(new ApplicationListener<ContextClosedEvent>() {
+					public void onApplicationEvent(ContextClosedEvent event) {
+						// child contexts publish their close events to parents too
+						if (event.getApplicationContext() == applicationContext) {
+							synchronized (beanNames) {
+								beanNames.remove(applicationContext);
+							}
+						}
+					}
+				});
+			}
+			return contextBeanNames;
+		}
+	}
+
+}
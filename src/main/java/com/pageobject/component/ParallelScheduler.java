@@ -0,0 +1,174 @@
+package com.pageobject.component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.model.RunnerScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * JUnit scheduler running test classes or test methods concurrently.
+ * Used by {@link ParallelSpringRunner} and {@link ParallelSuite}.
+ *
+ * <p>Configured by system properties:
+ * <ul>
+ * <li><code>pageobject.parallel.threads</code> - number of worker threads of
+ * one runner, default is number of processors</li>
+ * <li><code>pageobject.parallel.virtual</code> - use a virtual thread per
+ * test if the JDK supports it, default is <code>false</code></li>
+ * <li><code>pageobject.parallel.limit</code> - number of tests running at
+ * once in the whole JVM, i.e. browser sessions used, default is number of
+ * threads</li>
+ * </ul>
+ *
+ * <p>Only leaf tests count against the limit, test methods of
+ * {@link ParallelSpringRunner} and classes of other runners in a
+ * {@link ParallelSuite}. A counted test waiting for tests scheduled inside
+ * it, e.g. a plain suite with a {@link ParallelSpringRunner} class, gives
+ * its permit back while waiting, so nested runners cannot deadlock.
+ *
+ * <p>Each test runs with its name in the logging MDC under
+ * {@link #MDC_TEST_KEY} and ends its {@link BrowserScope} when finished, so
+ * the next test on the thread gets a fresh browser session.
+ */
+public class ParallelScheduler implements RunnerScheduler {
+
+	public static final String THREADS_PROPERTY = "pageobject.parallel.threads";
+	public static final String VIRTUAL_PROPERTY = "pageobject.parallel.virtual";
+	public static final String LIMIT_PROPERTY = "pageobject.parallel.limit";
+
+	/**
+	 * MDC key holding the name of the running test.
+	 */
+	public static final String MDC_TEST_KEY = "test";
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelScheduler.class);
+
+	private static final int THREADS = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+	private static final Semaphore LIMIT = new Semaphore(Integer.getInteger(LIMIT_PROPERTY, THREADS), true);
+	private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+	private static final ThreadLocal<Boolean> PERMIT_HELD = new ThreadLocal<Boolean>();
+
+	private final ExecutorService executor;
+	private final List<Future<?>> tasks = new ArrayList<Future<?>>();
+
+	/**
+	 * Creates a scheduler with an executor configured by system properties.
+	 */
+	public ParallelScheduler() {
+		this(createExecutor());
+	}
+
+	/**
+	 * Creates a scheduler using a given executor. The executor is shut down
+	 * when all tests finished.
+	 * @param executor executor to run tests with
+	 */
+	public ParallelScheduler(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @see org.junit.runners.model.RunnerScheduler#schedule(java.lang.Runnable)
+	 */
+	public void schedule(Runnable childStatement) {
+		synchronized (tasks) {
+			tasks.add(executor.submit(childStatement));
+		}
+	}
+
+	/**
+	 * Waits for all scheduled tests to finish. A test running this scheduler
+	 * releases its permit of the global limit while waiting.
+	 * @see org.junit.runners.model.RunnerScheduler#finished()
+	 */
+	public void finished() {
+		boolean permitHeld = Boolean.TRUE.equals(PERMIT_HELD.get());
+		if (permitHeld) {
+			LIMIT.release();
+		}
+		try {
+			List<Future<?>> scheduled;
+			synchronized (tasks) {
+				scheduled = new ArrayList<Future<?>>(tasks);
+			}
+			for (Future<?> task : scheduled) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for tests to finish", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Test execution failed", e.getCause());
+		} finally {
+			executor.shutdown();
+			if (permitHeld) {
+				LIMIT.acquireUninterruptibly();
+			}
+		}
+	}
+
+	/**
+	 * Runs one test within the global concurrency limit.
+	 * @param testName name of the test put into the logging MDC
+	 * @param test the test to run
+	 */
+	static void runTest(String testName, Runnable test) {
+		try {
+			LIMIT.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to run test " + testName, e);
+		}
+		PERMIT_HELD.set(Boolean.TRUE);
+		MDC.put(MDC_TEST_KEY, testName);
+		try {
+			test.run();
+		} finally {
+			try {
+				BrowserScope.endCurrentThread();
+			} finally {
+				MDC.remove(MDC_TEST_KEY);
+				PERMIT_HELD.remove();
+				LIMIT.release();
+			}
+		}
+	}
+
+	/**
+	 * Creates executor according to system properties.
+	 * @return executor for tests
+	 */
+	static ExecutorService createExecutor() {
+		if (Boolean.getBoolean(VIRTUAL_PROPERTY)) {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService) factory.invoke(null);
+			} catch (Exception e) {
+				logger.warn("Virtual threads are not supported by this JDK, using " + THREADS + " platform threads");
+			}
+		}
+
+		final int poolNumber = POOL_NUMBER.incrementAndGet();
+		return Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "pageobject-test-" + poolNumber + "-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+}
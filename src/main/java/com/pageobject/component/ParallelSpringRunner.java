@@ -0,0 +1,146 @@
+package com.pageobject.component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.internal.runners.statements.RunAfters;
+import org.junit.internal.runners.statements.RunBefores;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+import org.springframework.test.context.TestContextManager;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Spring JUnit runner executing test methods of a class concurrently.
+ * Concurrency is configured by {@link ParallelScheduler}.
+ *
+ * <pre>
+ * &#064;RunWith(ParallelSpringRunner.class)
+ * &#064;ContextConfiguration("classpath:test-context.xml")
+ * public class OrderTest extends AbstractTest {
+ * </pre>
+ *
+ * <p>Every test method needs its own browser, so declare the
+ * {@link com.pageobject.controller.BrowserController} in {@link BrowserScope}.
+ * Spring test context callbacks are serialized, because the test context of
+ * Spring 3.2 is shared by all test methods of a class.
+ */
+public class ParallelSpringRunner extends SpringJUnit4ClassRunner {
+
+	public ParallelSpringRunner(Class<?> klass) throws InitializationError {
+		super(klass);
+		setScheduler(new ParallelScheduler());
+	}
+
+	@Override
+	protected void runChild(final FrameworkMethod frameworkMethod, final RunNotifier notifier) {
+		String testName = getTestClass().getJavaClass().getName() + "." + frameworkMethod.getName();
+		ParallelScheduler.runTest(testName, new Runnable() {
+			public void run() {
+				ParallelSpringRunner.super.runChild(frameworkMethod, notifier);
+			}
+		});
+	}
+
+	@Override
+	protected Object createTest() throws Exception {
+		synchronized (getTestContextManager()) {
+			return super.createTest();
+		}
+	}
+
+	@Override
+	protected Statement withBefores(FrameworkMethod frameworkMethod, Object testInstance, Statement statement) {
+		List<FrameworkMethod> befores = getTestClass().getAnnotatedMethods(Before.class);
+		Statement junitBefores = befores.isEmpty() ? statement : new RunBefores(statement, befores, testInstance);
+		return new BeforeTestMethodCallbacks(junitBefores, testInstance, frameworkMethod.getMethod(),
+				getTestContextManager());
+	}
+
+	@Override
+	protected Statement withAfters(FrameworkMethod frameworkMethod, Object testInstance, Statement statement) {
+		List<FrameworkMethod> afters = getTestClass().getAnnotatedMethods(After.class);
+		Statement junitAfters = afters.isEmpty() ? statement : new RunAfters(statement, afters, testInstance);
+		return new AfterTestMethodCallbacks(junitAfters, testInstance, frameworkMethod.getMethod(),
+				getTestContextManager());
+	}
+
+	/**
+	 * Calls {@link TestContextManager#beforeTestMethod(Object, Method)}
+	 * exclusively, then the test.
+	 */
+	private static class BeforeTestMethodCallbacks extends Statement {
+		private final Statement next;
+		private final Object testInstance;
+		private final Method testMethod;
+		private final TestContextManager testContextManager;
+
+		BeforeTestMethodCallbacks(Statement next, Object testInstance, Method testMethod,
+				TestContextManager testContextManager) {
+			this.next = next;
+			this.testInstance = testInstance;
+			this.testMethod = testMethod;
+			this.testContextManager = testContextManager;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			synchronized (testContextManager) {
+				testContextManager.beforeTestMethod(testInstance, testMethod);
+			}
+			next.evaluate();
+		}
+	}
+
+	/**
+	 * Calls the test, then {@link TestContextManager#afterTestMethod(Object, Method, Throwable)}
+	 * exclusively.
+	 */
+	private static class AfterTestMethodCallbacks extends Statement {
+		private final Statement next;
+		private final Object testInstance;
+		private final Method testMethod;
+		private final TestContextManager testContextManager;
+
+		AfterTestMethodCallbacks(Statement next, Object testInstance, Method testMethod,
+				TestContextManager testContextManager) {
+			this.next = next;
+			this.testInstance = testInstance;
+			this.testMethod = testMethod;
+			this.testContextManager = testContextManager;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			Throwable testException = null;
+			List<Throwable> errors = new ArrayList<Throwable>();
+			try {
+				next.evaluate();
+			} catch (Throwable e) {
+				testException = e;
+				errors.add(e);
+			}
+
+			try {
+				synchronized (testContextManager) {
+					testContextManager.afterTestMethod(testInstance, testMethod, testException);
+				}
+			} catch (Exception e) {
+				errors.add(e);
+			}
+
+			if (errors.size() == 1) {
+				throw errors.get(0);
+			} else if (!errors.isEmpty()) {
+				throw new MultipleFailureException(errors);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.pageobject.component;
+
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+
+/**
+ * Suite running its test classes concurrently.
+ * Concurrency is configured by {@link ParallelScheduler}.
+ *
+ * <pre>
+ * &#064;RunWith(ParallelSuite.class)
+ * &#064;SuiteClasses({ OrderTest.class, InvoiceTest.class })
+ * public class RegressionSuite {
+ * }
+ * </pre>
+ *
+ * <p>Classes run by {@link ParallelSpringRunner} run their methods
+ * concurrently as well, each method counting against the global limit.
+ * Nested parallel suites only schedule their children, which count on
+ * their own. Classes with other runners count as one test each.
+ */
+public class ParallelSuite extends Suite {
+
+	public ParallelSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+		super(klass, builder);
+		setScheduler(new ParallelScheduler());
+	}
+
+	@Override
+	protected void runChild(final Runner runner, final RunNotifier notifier) {
+		if (runner instanceof ParallelSpringRunner || runner instanceof ParallelSuite) {
+			super.runChild(runner, notifier);
+			return;
+		}
+		ParallelScheduler.runTest(runner.getDescription().getDisplayName(), new Runnable() {
+			public void run() {
+				ParallelSuite.super.runChild(runner, notifier);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,276 @@
+package com.pageobject.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed screenshot store. Identical screenshots, e.g. of a shared
+ * page broken for many tests, are saved only once.
+ *
+ * <p>Layout of the store directory:
+ * <ul>
+ * <li><code>objects/&lt;sha-256&gt;.png</code> - unique screenshot images</li>
+ * <li><code>&lt;test name&gt;.png</code> - link to the image of a test, symbolic
+ * link if the file system supports it, hard link otherwise</li>
+ * <li><code>screenshots.index</code> - one line per stored screenshot:
+ * time, test name and image path separated by tabs</li>
+ * </ul>
+ *
+ * <p>Optionally the total size of images is capped, evicting the oldest
+ * images first, and images older than a retention period are deleted when
+ * the store is opened. Hard linked images keep occupying disk space until
+ * their links are deleted too.
+ *
+ * @see ScreenshotWriter#write(ScreenshotStore, String, byte[])
+ */
+public class ScreenshotStore {
+
+	public static final String OBJECTS_DIR = "objects";
+	public static final String INDEX_FILE = "screenshots.index";
+	public static final String EXTENSION = ".png";
+
+	private static final Logger logger = LoggerFactory.getLogger(ScreenshotStore.class);
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final Map<File, ScreenshotStore> stores = new HashMap<File, ScreenshotStore>();
+
+	private final Path directory;
+	private final Path objects;
+	private long maxSize;
+	private long totalSize;
+	private final Map<String, Set<Path>> links = new HashMap<String, Set<Path>>();
+
+	/**
+	 * Opens a store in a directory, deleting images older than the retention
+	 * period.
+	 * @param directory store directory, created if it does not exist
+	 * @param maxSize maximum total size of images in bytes, 0 for unlimited
+	 * @param retentionDays how many days to keep images, 0 for unlimited
+	 * @throws IOException if the directory cannot be created or read
+	 */
+	public ScreenshotStore(File directory, long maxSize, int retentionDays) throws IOException {
+		this.directory = directory.toPath();
+		this.objects = this.directory.resolve(OBJECTS_DIR);
+		this.maxSize = maxSize;
+		Files.createDirectories(objects);
+
+		long oldest = retentionDays > 0
+				? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays)
+				: Long.MIN_VALUE;
+		for (Path object : listObjects()) {
+			if (Files.getLastModifiedTime(object).toMillis() < oldest) {
+				Files.deleteIfExists(object);
+			} else {
+				totalSize += Files.size(object);
+			}
+		}
+		if (retentionDays > 0) {
+			deleteDanglingLinks();
+		}
+	}
+
+	/**
+	 * Returns the store for a directory shared within the JVM.
+	 * @param directory store directory
+	 * @param maxSize maximum total size of images in bytes, 0 for unlimited
+	 * @param retentionDays how many days to keep images, 0 for unlimited
+	 * @return the store
+	 * @throws IOException if the store cannot be opened
+	 */
+	public static ScreenshotStore forDirectory(File directory, long maxSize, int retentionDays) throws IOException {
+		File key = directory.getCanonicalFile();
+		synchronized (stores) {
+			ScreenshotStore store = stores.get(key);
+			if (store == null) {
+				store = new ScreenshotStore(key, maxSize, retentionDays);
+				stores.put(key, store);
+			} else {
+				store.setMaxSize(maxSize);
+			}
+			return store;
+		}
+	}
+
+	/**
+	 * Maximum total size of images in bytes, 0 for unlimited.
+	 * @param maxSize the maximum size
+	 */
+	public synchronized void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Stores a screenshot of a test. The image is written only if the store
+	 * does not contain it yet.
+	 * @param name test name, used as the link name
+	 * @param screenshot PNG image data
+	 * @return path of the stored image
+	 * @throws IOException if the screenshot cannot be stored
+	 */
+	public synchronized Path store(String name, byte[] screenshot) throws IOException {
+		String hash = hash(screenshot);
+		Path object = objects.resolve(hash + EXTENSION);
+		if (!Files.exists(object)) {
+			Path temp = Files.createTempFile(objects, hash, ".tmp");
+			ScreenshotWriter.writeFile(temp.toFile(), screenshot);
+			Files.move(temp, object, StandardCopyOption.ATOMIC_MOVE);
+			totalSize += screenshot.length;
+		} else {
+			logger.debug("Screenshot of {} is identical to stored {}", name, object.getFileName());
+			Files.setLastModifiedTime(object, FileTime.fromMillis(System.currentTimeMillis()));
+		}
+
+		Path link = directory.resolve(name + EXTENSION);
+		if (createLink(link, object)) {
+			Set<Path> objectLinks = links.get(hash);
+			if (objectLinks == null) {
+				objectLinks = new HashSet<Path>();
+				links.put(hash, objectLinks);
+			}
+			objectLinks.add(link);
+		}
+		appendIndex(name, object);
+
+		if (maxSize > 0 && totalSize > maxSize) {
+			evict(object);
+		}
+		return object;
+	}
+
+	/**
+	 * Returns total size of stored images.
+	 * @return size in bytes
+	 */
+	public synchronized long getTotalSize() {
+		return totalSize;
+	}
+
+	private boolean createLink(Path link, Path object) {
+		try {
+			Files.deleteIfExists(link);
+			try {
+				Files.createSymbolicLink(link, directory.relativize(object));
+			} catch (UnsupportedOperationException e) {
+				Files.createLink(link, object);
+			} catch (IOException e) {
+				Files.createLink(link, object);
+			}
+			return true;
+		} catch (Exception e) {
+			logger.warn("Unable to link screenshot [" + link + "], see " + INDEX_FILE, e);
+			return false;
+		}
+	}
+
+	private void appendIndex(String name, Path object) throws IOException {
+		Writer index = Files.newBufferedWriter(directory.resolve(INDEX_FILE), UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		try {
+			index.write(System.currentTimeMillis() + "\t" + name + "\t" + directory.relativize(object) + "\n");
+		} finally {
+			index.close();
+		}
+	}
+
+	/**
+	 * Deletes the oldest images until the total size fits the limit.
+	 * @param keep the image just stored, never evicted
+	 */
+	private void evict(Path keep) throws IOException {
+		List<Path> candidates = listObjects();
+		final Map<Path, Long> modified = new HashMap<Path, Long>();
+		for (Path object : candidates) {
+			modified.put(object, Files.getLastModifiedTime(object).toMillis());
+		}
+		Collections.sort(candidates, new Comparator<Path>() {
+			public int compare(Path p1, Path p2) {
+				return modified.get(p1).compareTo(modified.get(p2));
+			}
+		});
+
+		for (Path object : candidates) {
+			if (totalSize <= maxSize) {
+				break;
+			}
+			if (object.equals(keep)) {
+				continue;
+			}
+			long size = Files.size(object);
+			Files.deleteIfExists(object);
+			totalSize -= size;
+
+			String fileName = object.getFileName().toString();
+			Set<Path> objectLinks = links.remove(fileName.substring(0, fileName.length() - EXTENSION.length()));
+			if (objectLinks != null) {
+				for (Path link : objectLinks) {
+					if (Files.isSymbolicLink(link)) {
+						Files.deleteIfExists(link);
+					}
+				}
+			}
+			logger.debug("Evicted screenshot {}", fileName);
+		}
+	}
+
+	private void deleteDanglingLinks() throws IOException {
+		DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + EXTENSION);
+		try {
+			for (Path entry : entries) {
+				if (Files.isSymbolicLink(entry) && !Files.exists(entry)) {
+					Files.deleteIfExists(entry);
+				}
+			}
+		} finally {
+			entries.close();
+		}
+	}
+
+	private List<Path> listObjects() throws IOException {
+		List<Path> result = new ArrayList<Path>();
+		DirectoryStream<Path> entries = Files.newDirectoryStream(objects, "*" + EXTENSION);
+		try {
+			for (Path entry : entries) {
+				result.add(entry);
+			}
+		} finally {
+			entries.close();
+		}
+		return result;
+	}
+
+	private static String hash(byte[] data) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+				hex.append(Character.forDigit(b & 0xf, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.pageobject.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes screenshots to disk in a background thread, so a failing test only
+ * pays for grabbing the image from the browser.
+ *
+ * <p>Screenshots wait in a bounded queue. When the queue is full the caller
+ * writes the screenshot itself, so no screenshot is ever lost. Pending
+ * screenshots are flushed when the JVM shuts down.
+ *
+ * @see AbstractTest#captureScreenshot(String)
+ */
+public class ScreenshotWriter {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 32;
+	public static final long DEFAULT_FLUSH_TIMEOUT = 30000;
+
+	private static final Logger logger = LoggerFactory.getLogger(ScreenshotWriter.class);
+
+	private static ScreenshotWriter instance;
+
+	private final BlockingQueue<Screenshot> queue;
+	private final Object lock = new Object();
+	private int pending;
+	private Thread worker;
+
+	/**
+	 * Creates a writer with {@link #DEFAULT_QUEUE_CAPACITY}.
+	 */
+	public ScreenshotWriter() {
+		this(DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Creates a writer with a given queue capacity.
+	 * @param queueCapacity number of screenshots waiting to be written
+	 */
+	public ScreenshotWriter(int queueCapacity) {
+		this.queue = new ArrayBlockingQueue<Screenshot>(queueCapacity);
+	}
+
+	/**
+	 * Returns the writer shared by all tests in the JVM, flushed on JVM
+	 * shutdown.
+	 * @return shared writer
+	 */
+	public static synchronized ScreenshotWriter getInstance() {
+		if (instance == null) {
+			final ScreenshotWriter writer = new ScreenshotWriter();
+			Runtime.getRuntime().addShutdownHook(new Thread("pageobject-screenshot-flush") {
+				@Override
+				public void run() {
+					writer.flush(DEFAULT_FLUSH_TIMEOUT);
+				}
+			});
+			instance = writer;
+		}
+		return instance;
+	}
+
+	/**
+	 * Queues a screenshot to be written.
+	 * @param path full path of the file to write
+	 * @param screenshot PNG image data
+	 */
+	public void write(String path, byte[] screenshot) {
+		enqueue(new Screenshot(path, null, screenshot));
+	}
+	
+	/**
+	 * Queues a screenshot to be saved into a content-addressed store.
+	 * @param store store to save the screenshot to
+	 * @param name test name
+	 * @param screenshot PNG image data
+	 */
+	public void write(ScreenshotStore store, String name, byte[] screenshot) {
+		enqueue(new Screenshot(name, store, screenshot));
+	}
+	
+	private void enqueue(Screenshot item) {
+		synchronized (lock) {
+			pending++;
+		}
+		if (queue.offer(item)) {
+			ensureWorker();
+		} else {
+			logger.debug("Screenshot queue is full, writing [{}] synchronously", item.path);
+			writeAndComplete(item);
+		}
+	}
+
+	/**
+	 * Waits until all queued screenshots are written.
+	 * @param timeout maximum time to wait in milliseconds
+	 * @return true if all screenshots were written, false on timeout
+	 */
+	public boolean flush(long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (lock) {
+			while (pending > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					logger.warn(pending + " screenshots were not written in time");
+					return false;
+				}
+				try {
+					lock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes screenshot data to a file using a file channel. Override it to
+	 * store screenshots elsewhere.
+	 * @param path full path of the file to write
+	 * @param screenshot PNG image data
+	 * @throws IOException if the file cannot be written
+	 */
+	protected void store(String path, byte[] screenshot) throws IOException {
+		writeFile(new File(path), screenshot);
+	}
+
+	/**
+	 * Writes data to a file using a file channel, replacing its content.
+	 * @param file file to write
+	 * @param data data to write
+	 * @throws IOException if the file cannot be written
+	 */
+	static void writeFile(File file, byte[] data) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void writeAndComplete(Screenshot item) {
+		try {
+			if (item.store != null) {
+				item.store.store(item.path, item.data);
+			} else {
+				store(item.path, item.data);
+			}
+		} catch (Exception e) {
+			logger.error("Unable to write screenshot [" + item.path + "]", e);
+		} finally {
+			synchronized (lock) {
+				pending--;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	private synchronized void ensureWorker() {
+		if (worker != null) {
+			return;
+		}
+		worker = new Thread("pageobject-screenshot-writer") {
+			@Override
+			public void run() {
+				while (true) {
+					try {
+						Screenshot item = queue.poll(1, TimeUnit.MINUTES);
+						if (item != null) {
+							writeAndComplete(item);
+						}
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		};
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	private static class Screenshot {
+		private final String path;
+		private final ScreenshotStore store;
+		private final byte[] data;
+
+		Screenshot(String path, ScreenshotStore store, byte[] data) {
+			this.path = path;
+			this.store = store;
+			this.data = data;
+		}
+	}
+
+}
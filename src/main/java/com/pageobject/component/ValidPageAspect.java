@@ -11,12 +11,15 @@ import org.aspectj.lang.annotation.Before;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.pageobject.controller.BrowserController;
 
 
 /**
  * Aspect checking page validity before every method call on a page.
+ * The check is skipped while the {@link BrowserController#getNavigationEpoch() navigation epoch}
+ * stays the same as when the page was last found valid, unless strict validation is enabled.
  *
  * @author Pavel Muller
  * @version $Revision: 102464 $
@@ -26,6 +29,7 @@ public class ValidPageAspect {
 	private static Logger logger = LoggerFactory.getLogger(ValidPageAspect.class);
 	
 	private BrowserController browser;
+	private boolean strictValidation = false;
 	
 	/**
 	 * Browser.
@@ -36,6 +40,18 @@ public class ValidPageAspect {
 		this.browser = browser;
 	}
 	
+	/**
+	 * Validate the page before every method call, even if the page was not
+	 * changed through the browser since the last successful validation.
+	 * Default is <code>false</code>.
+	 * <p>Mapped to configuration property: selenium.page.validation.strict
+	 * @param strictValidation whether to validate before every call
+	 */
+	@Value("${selenium.page.validation.strict:false}")
+	public void setStrictValidation(boolean strictValidation) {
+		this.strictValidation = strictValidation;
+	}
+	
 	/**
 	 * Check if the browser is on page which method is being called.
 	 * 
@@ -46,6 +62,14 @@ public class ValidPageAspect {
 	public void validatePage(JoinPoint joinPoint, AbstractPage page) {
 		LoggerFactory.getLogger(page.getClass()).debug("Invocation of page method '{}'", joinPoint.getSignature().getName());
 		
+		long epoch = -1;
+		if (!strictValidation) {
+			epoch = browser.getNavigationEpoch();
+			if (page.getValidatedEpoch() == epoch) {
+				return;
+			}
+		}
+		
 		if (!page.isValidPage()) {
 			String pageMethod = page.getClass().getSimpleName() + "." + joinPoint.getSignature().getName();
 			String msg = "Browser state is invalid while calling page method '" + pageMethod +
@@ -53,6 +77,7 @@ public class ValidPageAspect {
 			logger.error(msg);
 			throw new IllegalStateException(msg);
 		}
+		page.setValidatedEpoch(epoch);
 	}
 
 }
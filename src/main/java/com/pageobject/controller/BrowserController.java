@@ -1,6 +1,8 @@
 package com.pageobject.controller;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Interface for browser com.pageobject.controller implementations. Containing the base methods
@@ -207,6 +209,25 @@ public interface BrowserController {
 	 */
 	public boolean isElementPresent(String locator);
 
+	/**
+	 * Checks whether the web element is present on current web page right
+	 * now, without waiting for it to appear. Use it for probing elements that
+	 * are expected to be missing, such as the row after the last one.
+	 * The default implementation calls {@link #isElementPresent(String)}.
+	 * 
+	 * @param locator
+	 *            the locator of an web element. The locator type can be
+	 *            specified by prefix ('id=', 'name=', 'css=', 'xpath=',
+	 *            'text='). If the identifier type is not specified, it will be
+	 *            taken as it's 'id='.
+	 * 
+	 * @return true if the web element was found on current web page, false
+	 *         otherwise.
+	 */
+	public default boolean isElementPresentNow(String locator) {
+		return isElementPresent(locator);
+	}
+
 	/**
 	 * Checks whether the web element is enabled on current web page.
 	 * 
@@ -234,6 +255,24 @@ public interface BrowserController {
 	 */
 	public int getElementCount(String locator);
 
+	/**
+	 * Counts occurrences of the specified web element on current web page
+	 * right now, without waiting for any of them to appear. Use it for
+	 * counting elements that may be missing, such as rows of an empty table.
+	 * The default implementation calls {@link #getElementCount(String)}.
+	 * 
+	 * @param locator
+	 *            the locator of an web element. The locator type can be
+	 *            specified by prefix ('id=', 'name=', 'css=', 'xpath=',
+	 *            'text='). If the identifier type is not specified, it will be
+	 *            taken as it's 'id='.
+	 * 
+	 * @return the count of occurrences of the specified web element.
+	 */
+	public default int getElementCountNow(String locator) {
+		return getElementCount(locator);
+	}
+
 	/**
 	 * Captures the screen shot and saves a file to specified location.
 	 * 
@@ -246,6 +285,27 @@ public interface BrowserController {
 	 */
 	public void captureScreenshot(String screenshotPath) throws IOException;
 
+	/**
+	 * Captures the screen shot and returns it without saving. The default
+	 * implementation captures it to a temporary file by
+	 * {@link #captureScreenshot(String)} and reads the file back.
+	 * 
+	 * @return PNG image data
+	 */
+	public default byte[] getScreenshot() {
+		try {
+			Path file = Files.createTempFile("screenshot", ".png");
+			try {
+				captureScreenshot(file.toString());
+				return Files.readAllBytes(file);
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to capture screenshot", e);
+		}
+	}
+
 	/**
 	 * Returns the current web page state.
 	 * 
@@ -266,6 +326,8 @@ public interface BrowserController {
 	 * @param timeout
 	 *            the amount of time that should be waited at top, expressed in
 	 *            milliseconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the page is not loaded within the timeout
 	 */
 	public void waitForPageToLoad(long timeout);
 
@@ -280,10 +342,35 @@ public interface BrowserController {
 	 * 
 	 * @param timeout
 	 *            the amount of time that should be waited at top, expressed in
-	 *            milliseconds.
+	 *            seconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the element is not present within the timeout
 	 */
 	public void waitForElementPresent(String locator, long timeout);
 
+	/**
+	 * Waits until the specified web element is present, watching the page
+	 * changes inside the browser. The wait costs a single round trip no matter
+	 * how long it takes, unlike {@link #waitForElementPresent(String, long)}
+	 * which polls the browser. The default implementation calls
+	 * {@link #waitForElementPresent(String, long)}.
+	 * 
+	 * @param locator
+	 *            the locator of an web element. The locator type can be
+	 *            specified by prefix ('id=', 'name=', 'css=', 'xpath=',
+	 *            'text='). If the identifier type is not specified, it will be
+	 *            taken as it's 'id='.
+	 * 
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed in
+	 *            seconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the element is not present within the timeout
+	 */
+	public default void waitForElementPresentInBrowser(String locator, long timeout) {
+		waitForElementPresent(locator, timeout);
+	}
+
 	/**
 	 * Waits until the condition is true. Can be used for example as:
 	 * waitUntil(isElementEnabled("login"), 5000);
@@ -294,9 +381,50 @@ public interface BrowserController {
 	 * @param timeout
 	 *            the amount of time that should be waited at top, expressed in
 	 *            milliseconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the condition is not fulfilled within the timeout
 	 */
 	public void waitUntil(String script, long timeout);
 
+	/**
+	 * Waits until the condition is fulfilled. The condition is checked
+	 * immediately and then with growing poll interval. The default
+	 * implementation waits by a new {@link WaitEngine} with default settings.
+	 * 
+	 * @param condition
+	 *            the condition that is supposed to be fulfilled.
+	 * 
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed in
+	 *            milliseconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the condition is not fulfilled within the timeout
+	 */
+	public default void waitUntil(WaitCondition condition, long timeout) {
+		new WaitEngine().waitUntil(condition, timeout);
+	}
+
+	/**
+	 * Waits until the page is idle: there are no pending XMLHttpRequests,
+	 * fetch calls or short timers for the whole quiet period. Use it instead
+	 * of {@link #waitFor(long)} to let AJAX settle. The default implementation
+	 * cannot see pending requests, it waits for the page to load and then
+	 * for the quiet period.
+	 * 
+	 * @param quietPeriod
+	 *            how long the page has to stay idle, expressed in
+	 *            milliseconds.
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed in
+	 *            milliseconds.
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             if the page is not idle within the timeout
+	 */
+	public default void waitForIdle(long quietPeriod, long timeout) {
+		waitForPageToLoad(timeout);
+		waitFor(quietPeriod);
+	}
+
 	/**
 	 * Waits for a given amount of time, causing the thread to sleep.
 	 * 
@@ -312,6 +440,23 @@ public interface BrowserController {
 	 * @return an object containing data returned by javascript 
 	 */
 	public Object executeScript(String script);
+	
+	/**
+	 * Executes javascript with arguments in current window. The script reads
+	 * them as <code>arguments[0]</code>, <code>arguments[1]</code>, etc.
+	 * Arguments may be <code>null</code>, strings, numbers, booleans and
+	 * collections or arrays of them. The default implementation writes the
+	 * arguments into the script and calls {@link #executeScript(String)}.
+	 * 
+	 * @param script script
+	 * @param args script arguments
+	 * @return an object containing data returned by javascript
+	 */
+	public default Object executeScript(String script, Object... args) {
+		StringBuilder sb = new StringBuilder("return (function() { ").append(script).append(" }).apply(this, ");
+		Json.append(args, sb);
+		return executeScript(sb.append(");").toString());
+	}
 
 	/**
 	 * Get a source of the current page.
@@ -320,4 +465,19 @@ public interface BrowserController {
 	 */
 	public String getPageSource();
 	
+	/**
+	 * Returns a counter increased by every command navigating or changing the
+	 * page: opening and closing pages, switching windows, clicking and
+	 * selecting. Reads, typing, waits and scripts leave it unchanged, so
+	 * while the epoch stays the same the browser has not been navigated
+	 * through this controller. The default
+	 * implementation does not track the page and returns a new epoch on
+	 * every call.
+	 * 
+	 * @return current navigation epoch
+	 */
+	public default long getNavigationEpoch() {
+		return UntrackedNavigation.nextEpoch();
+	}
+	
 }
@@ -0,0 +1,97 @@
+package com.pageobject.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts browser commands issued by the current thread, e.g. by one test.
+ * Commands are reported by {@link WebDriverBrowserImpl} and
+ * {@link ReplayingBrowserController}, other controllers have to call
+ * {@link #record(String, String)} themselves. Counting costs nothing unless a
+ * counter is started on the thread.
+ *
+ * <pre>
+ * CommandCounter counter = CommandCounter.start();
+ * try {
+ *     table.findRow("Order 42");
+ * } finally {
+ *     CommandCounter.stop();
+ * }
+ * int commands = counter.getCount();
+ * </pre>
+ */
+public class CommandCounter {
+
+	private static final ThreadLocal<CommandCounter> current = new ThreadLocal<CommandCounter>();
+
+	private int count;
+	private final Map<String, Integer> locators = new HashMap<String, Integer>();
+
+	/**
+	 * Starts counting commands of the current thread, replacing a counter
+	 * started before.
+	 * @return the new counter
+	 */
+	public static CommandCounter start() {
+		CommandCounter counter = new CommandCounter();
+		current.set(counter);
+		return counter;
+	}
+
+	/**
+	 * Stops counting commands of the current thread.
+	 * @return the stopped counter or <code>null</code> if none was started
+	 */
+	public static CommandCounter stop() {
+		CommandCounter counter = current.get();
+		current.remove();
+		return counter;
+	}
+
+	/**
+	 * Counts a command if a counter is started on the current thread.
+	 * @param method name of the {@link BrowserController} method
+	 * @param locator locator of the element or <code>null</code>
+	 */
+	public static void record(String method, String locator) {
+		CommandCounter counter = current.get();
+		if (counter != null) {
+			counter.add(method, locator);
+		}
+	}
+
+	/**
+	 * Returns number of counted commands.
+	 * @return the count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the most used locators.
+	 * @param limit maximum number of returned entries
+	 * @return "method locator" to number of commands, most used first
+	 */
+	public List<Map.Entry<String, Integer>> getTopLocators(int limit) {
+		List<Map.Entry<String, Integer>> result = new ArrayList<Map.Entry<String, Integer>>(locators.entrySet());
+		Collections.sort(result, new Comparator<Map.Entry<String, Integer>>() {
+			public int compare(Map.Entry<String, Integer> e1, Map.Entry<String, Integer> e2) {
+				return e2.getValue().compareTo(e1.getValue());
+			}
+		});
+		return result.size() > limit ? result.subList(0, limit) : result;
+	}
+
+	private void add(String method, String locator) {
+		count++;
+		String key = locator == null ? method : method + " " + locator;
+		Integer previous = locators.get(key);
+		locators.put(key, previous == null ? 1 : previous + 1);
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.pageobject.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency statistics of one browser command: number of calls, failures, total
+ * and maximum time and a histogram of latencies.
+ *
+ * <p>
+ * The histogram has power of two buckets in microseconds, bucket
+ * <code>i</code> counts calls which took less than <code>2^i</code>
+ * microseconds, the last bucket counts all longer calls. Recording a call does
+ * not allocate and is safe for concurrent use.
+ *
+ * @see MetricsBrowserController
+ */
+public class CommandStats {
+
+	public static final int BUCKETS = 32;
+
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Records one call of the command.
+	 *
+	 * @param nanos
+	 *            duration of the call in nanoseconds
+	 * @param failed
+	 *            whether the call threw an exception
+	 */
+	public void record(long nanos, boolean failed) {
+		count.incrementAndGet();
+		if (failed) {
+			failures.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+		histogram.incrementAndGet(bucket(nanos));
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * @return total time spent in the command in milliseconds
+	 */
+	public long getTotalTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+	}
+
+	/**
+	 * @return the longest call of the command in milliseconds
+	 */
+	public long getMaxTime() {
+		return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+	}
+
+	/**
+	 * @return average call of the command in milliseconds
+	 */
+	public double getMeanTime() {
+		long calls = count.get();
+		return calls == 0 ? 0 : totalNanos.get() / 1e6 / calls;
+	}
+
+	/**
+	 * Estimates a percentile of call latency from the histogram. The result
+	 * is the upper bound of the bucket the percentile falls into, so it is
+	 * accurate within a factor of two.
+	 *
+	 * @param percentile
+	 *            percentile between 0 and 100
+	 * @return latency in milliseconds
+	 */
+	public double getPercentile(double percentile) {
+		long calls = count.get();
+		if (calls == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(calls * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += histogram.get(i);
+			if (seen >= Math.max(1, rank)) {
+				return i == BUCKETS - 1 ? getMaxTime() : (1L << i) / 1000.0;
+			}
+		}
+		return getMaxTime();
+	}
+
+	/**
+	 * Returns number of calls in a histogram bucket.
+	 *
+	 * @param bucket
+	 *            bucket index, calls shorter than <code>2^bucket</code>
+	 *            microseconds
+	 * @return number of calls
+	 */
+	public long getBucketCount(int bucket) {
+		return histogram.get(bucket);
+	}
+
+	private static int bucket(long nanos) {
+		long micros = nanos / 1000;
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return Math.min(bucket, BUCKETS - 1);
+	}
+
+}
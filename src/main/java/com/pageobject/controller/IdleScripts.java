@@ -0,0 +1,106 @@
+package com.pageobject.controller;
+
+/**
+ * JavaScript instrumenting the page to detect when it is idle, i.e. there are
+ * no pending XMLHttpRequests, fetch calls or short timers.
+ *
+ * <p>
+ * The instrumentation is installed into the current document by
+ * {@link #INSTALL_SCRIPT} after every page load and click, or by the wait
+ * itself if it is missing, and lives until the page is unloaded. Requests
+ * started before it was installed, e.g. by scripts running while the page
+ * loads, are not tracked.
+ */
+class IdleScripts {
+
+	private static final String DECLARATIONS =
+			" var w = window;"
+			+ " var now = function() { return new Date().getTime(); };";
+
+	/**
+	 * Installs the instrumentation unless it is installed already. Expects
+	 * <code>maxTimerDelay</code>, the longest tracked timer delay in
+	 * milliseconds, to be declared.
+	 */
+	private static final String INSTRUMENTATION =
+			" if (!w.__pageobjectIdle) {"
+			+ "  var idle = w.__pageobjectIdle = { pending: 0, timers: {}, timerCount: 0, last: now(),"
+			+ "   setTimeout: w.setTimeout, clearTimeout: w.clearTimeout };"
+			+ "  var touch = function(delta) {"
+			+ "   idle.pending = Math.max(0, idle.pending + delta); idle.last = now();"
+			+ "  };"
+			+ "  if (w.XMLHttpRequest) {"
+			+ "   var send = w.XMLHttpRequest.prototype.send;"
+			+ "   w.XMLHttpRequest.prototype.send = function() {"
+			+ "    var xhr = this, done = false;"
+			+ "    var finish = function() { if (!done) { done = true; touch(-1); } };"
+			+ "    touch(1);"
+			+ "    xhr.addEventListener('readystatechange', function() { if (xhr.readyState == 4) { finish(); } });"
+			+ "    xhr.addEventListener('abort', finish);"
+			+ "    xhr.addEventListener('error', finish);"
+			+ "    xhr.addEventListener('timeout', finish);"
+			+ "    try { return send.apply(xhr, arguments); } catch (e) { finish(); throw e; }"
+			+ "   };"
+			+ "  }"
+			+ "  if (w.fetch) {"
+			+ "   var fetch = w.fetch;"
+			+ "   w.fetch = function() {"
+			+ "    touch(1);"
+			+ "    var promise;"
+			+ "    try { promise = fetch.apply(this, arguments); } catch (e) { touch(-1); throw e; }"
+			+ "    return promise.then(function(r) { touch(-1); return r; }, function(e) { touch(-1); throw e; });"
+			+ "   };"
+			+ "  }"
+			+ "  w.setTimeout = function(fn, delay) {"
+			+ "   if (typeof fn != 'function' || (delay || 0) > maxTimerDelay) {"
+			+ "    return idle.setTimeout.apply(w, arguments);"
+			+ "   }"
+			+ "   var args = Array.prototype.slice.call(arguments, 2), id;"
+			+ "   id = idle.setTimeout.call(w, function() {"
+			+ "    if (idle.timers[id]) { delete idle.timers[id]; idle.timerCount--; idle.last = now(); }"
+			+ "    return fn.apply(this, args);"
+			+ "   }, delay);"
+			+ "   idle.timers[id] = true; idle.timerCount++;"
+			+ "   return id;"
+			+ "  };"
+			+ "  w.clearTimeout = function(id) {"
+			+ "   if (idle.timers[id]) { delete idle.timers[id]; idle.timerCount--; }"
+			+ "   return idle.clearTimeout.apply(w, arguments);"
+			+ "  };"
+			+ " }";
+
+	/**
+	 * Script installing the instrumentation if needed. Expects the longest
+	 * tracked timer delay in milliseconds as <code>arguments[0]</code>.
+	 */
+	static final String INSTALL_SCRIPT =
+			"var maxTimerDelay = arguments[0];"
+			+ DECLARATIONS
+			+ INSTRUMENTATION;
+
+	/**
+	 * Asynchronous script installing the instrumentation if needed and
+	 * waiting for the page to be idle. Expects the quiet period as
+	 * <code>arguments[0]</code>, the timeout as <code>arguments[1]</code> and
+	 * the longest tracked timer delay as <code>arguments[2]</code>, all in
+	 * milliseconds. Calls back with <code>true</code> when idle and
+	 * <code>false</code> on timeout.
+	 */
+	static final String WAIT_FOR_IDLE_SCRIPT =
+			"var quiet = arguments[0], timeout = arguments[1], maxTimerDelay = arguments[2];"
+			+ " var callback = arguments[arguments.length - 1];"
+			+ DECLARATIONS
+			+ INSTRUMENTATION
+			+ " var state = w.__pageobjectIdle, start = now();"
+			+ " var check = function() {"
+			+ "  var t = now();"
+			+ "  if (state.pending == 0 && state.timerCount == 0 && t - state.last >= quiet) { callback(true); }"
+			+ "  else if (t - start >= timeout) { callback(false); }"
+			+ "  else { state.setTimeout.call(w, check, 25); }"
+			+ " };"
+			+ " check();";
+
+	private IdleScripts() {
+	}
+
+}
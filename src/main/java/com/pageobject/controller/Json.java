@@ -0,0 +1,301 @@
+package com.pageobject.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON writer and parser for browser command reports and
+ * recordings. Numbers are parsed as Long or Double, the way WebDriver
+ * returns script results.
+ */
+class Json {
+
+	private Json() {
+	}
+
+	/**
+	 * Quotes a string as a JSON string literal.
+	 * @param value string to quote
+	 * @return JSON string
+	 */
+	static String quote(String value) {
+		StringBuilder sb = new StringBuilder(value.length() + 2);
+		appendString(value, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends a JSON representation of a value. Supported are
+	 * <code>null</code>, Boolean, Number, String, Map, Collection and
+	 * arrays of objects, other values are written as strings.
+	 * @param value value to write
+	 * @param sb target
+	 */
+	static void append(Object value, StringBuilder sb) {
+		if (value == null) {
+			sb.append("null");
+		} else if (value instanceof Boolean) {
+			sb.append(value);
+		} else if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			if (Double.isNaN(number) || Double.isInfinite(number)) {
+				sb.append("null");
+			} else {
+				sb.append(number);
+			}
+		} else if (value instanceof Number) {
+			sb.append(value);
+		} else if (value instanceof Map) {
+			sb.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!first) {
+					sb.append(',');
+				}
+				first = false;
+				appendString(String.valueOf(entry.getKey()), sb);
+				sb.append(':');
+				append(entry.getValue(), sb);
+			}
+			sb.append('}');
+		} else if (value instanceof Collection) {
+			sb.append('[');
+			boolean first = true;
+			for (Object item : (Collection<?>) value) {
+				if (!first) {
+					sb.append(',');
+				}
+				first = false;
+				append(item, sb);
+			}
+			sb.append(']');
+		} else if (value instanceof Object[]) {
+			List<Object> items = new ArrayList<Object>();
+			for (Object item : (Object[]) value) {
+				items.add(item);
+			}
+			append(items, sb);
+		} else {
+			appendString(value.toString(), sb);
+		}
+	}
+
+	/**
+	 * Parses a JSON document.
+	 * @param json JSON text
+	 * @return Map, List, String, Long, Double, Boolean or <code>null</code>
+	 * @throws IllegalArgumentException if the text is not valid JSON
+	 */
+	static Object parse(String json) {
+		Parser parser = new Parser(json);
+		Object value = parser.value();
+		parser.skipWhitespace();
+		if (parser.pos < json.length()) {
+			throw parser.error("unexpected trailing characters");
+		}
+		return value;
+	}
+
+	private static void appendString(String value, StringBuilder sb) {
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+
+	private static class Parser {
+		private final String json;
+		private int pos;
+
+		Parser(String json) {
+			this.json = json;
+		}
+
+		Object value() {
+			skipWhitespace();
+			if (pos >= json.length()) {
+				throw error("unexpected end");
+			}
+			char c = json.charAt(pos);
+			if (c == '{') {
+				return object();
+			} else if (c == '[') {
+				return array();
+			} else if (c == '"') {
+				return string();
+			} else if (json.startsWith("true", pos)) {
+				pos += 4;
+				return Boolean.TRUE;
+			} else if (json.startsWith("false", pos)) {
+				pos += 5;
+				return Boolean.FALSE;
+			} else if (json.startsWith("null", pos)) {
+				pos += 4;
+				return null;
+			}
+			return number();
+		}
+
+		private Map<String, Object> object() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == '}') {
+				pos++;
+				return map;
+			}
+			while (true) {
+				skipWhitespace();
+				if (peek() != '"') {
+					throw error("expected a key");
+				}
+				String key = string();
+				skipWhitespace();
+				expect(':');
+				map.put(key, value());
+				skipWhitespace();
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect('}');
+					return map;
+				}
+			}
+		}
+
+		private List<Object> array() {
+			List<Object> list = new ArrayList<Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == ']') {
+				pos++;
+				return list;
+			}
+			while (true) {
+				list.add(value());
+				skipWhitespace();
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect(']');
+					return list;
+				}
+			}
+		}
+
+		private String string() {
+			StringBuilder sb = new StringBuilder();
+			pos++;
+			while (pos < json.length()) {
+				char c = json.charAt(pos++);
+				if (c == '"') {
+					return sb.toString();
+				}
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				if (pos >= json.length()) {
+					break;
+				}
+				char escaped = json.charAt(pos++);
+				switch (escaped) {
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'u':
+					if (pos + 4 > json.length()) {
+						throw error("invalid unicode escape");
+					}
+					sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					sb.append(escaped);
+				}
+			}
+			throw error("unterminated string");
+		}
+
+		private Object number() {
+			int start = pos;
+			boolean decimal = false;
+			while (pos < json.length()) {
+				char c = json.charAt(pos);
+				if (c == '.' || c == 'e' || c == 'E') {
+					decimal = true;
+				} else if (!(Character.isDigit(c) || c == '-' || c == '+')) {
+					break;
+				}
+				pos++;
+			}
+			String number = json.substring(start, pos);
+			try {
+				return decimal ? (Object) Double.valueOf(number) : (Object) Long.valueOf(number);
+			} catch (NumberFormatException e) {
+				throw error("invalid value");
+			}
+		}
+
+		private char peek() {
+			return pos < json.length() ? json.charAt(pos) : 0;
+		}
+
+		private void expect(char c) {
+			if (peek() != c) {
+				throw error("expected '" + c + "'");
+			}
+			pos++;
+		}
+
+		void skipWhitespace() {
+			while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		IllegalArgumentException error(String reason) {
+			return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + reason);
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.pageobject.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded, thread-safe cache of compiled WebDriver {@link By} locators keyed
+ * by their string representation ('id=', 'name=', 'css=', 'xpath=', 'text=').
+ *
+ * <p>
+ * The least recently used locators are evicted once the cache reaches its
+ * maximum size. Hit and miss counters are kept to see how effective the cache
+ * is for a particular test suite.
+ *
+ * <p>
+ * A locator is cached only when it is looked up the second time. Locators
+ * used once, such as most locators bound by a {@link LocatorTemplate}, are
+ * compiled but never evict locators used again. The last locators looked up
+ * once are remembered up to the maximum size as well.
+ *
+ * @see WebDriverBrowserImpl
+ */
+public class LocatorCache {
+
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final Map<String, By> cache;
+	private final Map<String, Boolean> lookedUpOnce;
+	private volatile int maxSize;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a cache with {@link #DEFAULT_MAX_SIZE}.
+	 */
+	public LocatorCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a cache with a given maximum size.
+	 *
+	 * @param maxSize
+	 *            maximum number of cached locators, 0 disables caching
+	 */
+	public LocatorCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.cache = new LinkedHashMap<String, By>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, By> eldest) {
+				return size() > LocatorCache.this.maxSize;
+			}
+		};
+		this.lookedUpOnce = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > LocatorCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Maximum number of cached locators. Setting 0 disables caching.
+	 *
+	 * @param maxSize
+	 *            the maximum size to set
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		if (maxSize <= 0) {
+			clear();
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns a compiled locator, compiling it if necessary. A compiled
+	 * locator is cached when it was already looked up before.
+	 *
+	 * @param locator
+	 *            String representation of the locator.
+	 *
+	 * @return By locator - locator type used by WebDriver, <code>null</code>
+	 *         if the locator type was not recognized.
+	 */
+	public By getLocator(String locator) {
+		By byLocator;
+		synchronized (cache) {
+			byLocator = cache.get(locator);
+		}
+		if (byLocator != null) {
+			hits.incrementAndGet();
+			return byLocator;
+		}
+
+		misses.incrementAndGet();
+		byLocator = compile(locator);
+		if (byLocator != null && maxSize > 0) {
+			synchronized (cache) {
+				if (lookedUpOnce.remove(locator) != null) {
+					cache.put(locator, byLocator);
+				} else {
+					lookedUpOnce.put(locator, Boolean.TRUE);
+				}
+			}
+		}
+		return byLocator;
+	}
+
+	/**
+	 * Creates the locator used by WebDriver to locate web elements. Override
+	 * this method if you need to support other locator types.
+	 *
+	 * @param locator
+	 *            String representation of the locator.
+	 *
+	 * @return By locator - locator type used by WebDriver that was created
+	 *         based on the string representation.
+	 */
+	protected By compile(String locator) {
+		By byLocator = null;
+		String identifier;
+		int typeIndex = locator.indexOf("=");
+
+		identifier = locator.substring(typeIndex + 1);
+
+		if (locator.startsWith("id=") || typeIndex == -1) {
+			byLocator = By.id(identifier);
+		} else if (locator.startsWith("name=")) {
+			byLocator = By.name(identifier);
+		} else if (locator.startsWith("css=")) {
+			byLocator = By.cssSelector(identifier);
+		} else if (locator.startsWith("xpath=")) {
+			byLocator = By.xpath(identifier);
+		} else if (locator.startsWith("text=")) {
+			byLocator = By.linkText(identifier);
+		} else {
+			logger.error("Locator type was not recognized. Locator type: "
+					+ locator.substring(0, typeIndex) + ". Identifier: "
+					+ identifier + ".");
+		}
+
+		return byLocator;
+	}
+
+	/**
+	 * Removes all cached locators. Counters are not reset.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			lookedUpOnce.clear();
+		}
+	}
+
+	/**
+	 * Returns number of currently cached locators.
+	 *
+	 * @return cache size
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Returns how many times a locator was served from the cache.
+	 *
+	 * @return hit count
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns how many times a locator had to be compiled.
+	 *
+	 * @return miss count
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns ratio of cache hits to all lookups.
+	 *
+	 * @return hit ratio between 0 and 1, 0 if there was no lookup yet
+	 */
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	/**
+	 * Resets hit and miss counters.
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "LocatorCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + hits.get()
+				+ ", misses=" + misses.get() + "]";
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.pageobject.controller;
+
+/**
+ * JavaScript counterparts of string locators ('id=', 'name=', 'css=',
+ * 'xpath=', 'text=') used to evaluate locators inside the browser.
+ *
+ * <p>
+ * Scripts expect locator type as <code>arguments[0]</code> and locator
+ * identifier as <code>arguments[1]</code>.
+ */
+class LocatorScripts {
+
+	static final String ID = "id";
+	static final String NAME = "name";
+	static final String CSS = "css";
+	static final String XPATH = "xpath";
+	static final String TEXT = "text";
+
+	/**
+	 * Function <code>find(type, identifier)</code> returning an array of
+	 * matching elements.
+	 */
+	static final String FIND_FUNCTION =
+			"function find(type, identifier) {"
+			+ " var d = document, result = [], i, nodes;"
+			+ " if (type == 'id') {"
+			+ "  var e = d.getElementById(identifier);"
+			+ "  if (e) { result.push(e); }"
+			+ " } else if (type == 'name') {"
+			+ "  nodes = d.getElementsByName(identifier);"
+			+ "  for (i = 0; i < nodes.length; i++) { result.push(nodes[i]); }"
+			+ " } else if (type == 'css') {"
+			+ "  nodes = d.querySelectorAll(identifier);"
+			+ "  for (i = 0; i < nodes.length; i++) { result.push(nodes[i]); }"
+			+ " } else if (type == 'xpath') {"
+			+ "  nodes = d.evaluate(identifier, d, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+			+ "  for (i = 0; i < nodes.snapshotLength; i++) { result.push(nodes.snapshotItem(i)); }"
+			+ " } else if (type == 'text') {"
+			+ "  nodes = d.getElementsByTagName('a');"
+			+ "  for (i = 0; i < nodes.length; i++) {"
+			+ "   if (String(nodes[i].textContent).replace(/^\\s+|\\s+$/g, '') == identifier) { result.push(nodes[i]); }"
+			+ "  }"
+			+ " }"
+			+ " return result;"
+			+ " }";
+
+	/**
+	 * Script returning whether an element matching the locator is present.
+	 */
+	static final String IS_PRESENT_SCRIPT =
+			FIND_FUNCTION + " return find(arguments[0], arguments[1]).length > 0;";
+
+	/**
+	 * Script returning number of elements matching the locator.
+	 */
+	static final String COUNT_SCRIPT =
+			FIND_FUNCTION + " return find(arguments[0], arguments[1]).length;";
+
+	/**
+	 * Asynchronous script waiting for an element matching the locator using
+	 * MutationObserver. Expects timeout in milliseconds as
+	 * <code>arguments[2]</code>. Calls back with <code>true</code> when the
+	 * element is present, <code>false</code> on timeout and <code>null</code>
+	 * if MutationObserver is not supported.
+	 */
+	static final String WAIT_FOR_PRESENT_SCRIPT =
+			FIND_FUNCTION
+			+ " var type = arguments[0], identifier = arguments[1], timeout = arguments[2];"
+			+ " var callback = arguments[arguments.length - 1];"
+			+ " if (find(type, identifier).length > 0) { callback(true); return; }"
+			+ " if (typeof MutationObserver == 'undefined') { callback(null); return; }"
+			+ " var done = false, timer = null;"
+			+ " var observer = new MutationObserver(function() {"
+			+ "  if (!done && find(type, identifier).length > 0) {"
+			+ "   done = true; observer.disconnect(); clearTimeout(timer); callback(true);"
+			+ "  }"
+			+ " });"
+			+ " observer.observe(document.documentElement || document,"
+			+ "  { childList: true, subtree: true, attributes: true, characterData: true });"
+			+ " timer = setTimeout(function() {"
+			+ "  if (!done) { done = true; observer.disconnect(); callback(false); }"
+			+ " }, timeout);";
+
+	private LocatorScripts() {
+	}
+
+	/**
+	 * Returns the locator type, defaults to 'id' if not specified.
+	 *
+	 * @param locator
+	 *            String representation of the locator.
+	 * @return locator type or <code>null</code> if not recognized
+	 */
+	static String getType(String locator) {
+		int typeIndex = locator.indexOf("=");
+		if (typeIndex == -1) {
+			return ID;
+		}
+		String type = locator.substring(0, typeIndex);
+		if (ID.equals(type) || NAME.equals(type) || CSS.equals(type) || XPATH.equals(type) || TEXT.equals(type)) {
+			return type;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the locator identifier without type prefix.
+	 *
+	 * @param locator
+	 *            String representation of the locator.
+	 * @return identifier
+	 */
+	static String getIdentifier(String locator) {
+		return locator.substring(locator.indexOf("=") + 1);
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.pageobject.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameterized locator compiled once and bound to indexes many times, for
+ * example a table cell locator
+ * <code>xpath=//table/tbody/tr[{0}]/td[{1}]</code>.
+ *
+ * <p>
+ * Placeholders are zero based parameter numbers in curly braces. Other curly
+ * braces are kept as they are. Binding only concatenates precompiled
+ * fragments, so the template string is never parsed again.
+ *
+ * <p>
+ * Every binding is a new locator, usually used once right away.
+ * {@link LocatorCache} caches a locator only when it is used again.
+ *
+ * <pre>
+ * LocatorTemplate cell = new LocatorTemplate("xpath=//table/tbody/tr[{0}]/td[{1}]");
+ * browser.getText(cell.bind(3, 2));
+ * </pre>
+ */
+public class LocatorTemplate {
+
+	private final String template;
+	private final String[] fragments;
+	private final int[] parameters;
+	private final int parameterCount;
+	private final int fixedLength;
+
+	/**
+	 * Compiles a locator template.
+	 *
+	 * @param template
+	 *            locator with <code>{n}</code> placeholders
+	 */
+	public LocatorTemplate(String template) {
+		if (template == null) {
+			throw new IllegalArgumentException("Locator template must not be null");
+		}
+		this.template = template;
+
+		List<String> fragmentList = new ArrayList<String>();
+		List<Integer> parameterList = new ArrayList<Integer>();
+		int maxParameter = -1;
+		int start = 0;
+		int i = 0;
+		while (i < template.length()) {
+			int end = placeholderEnd(template, i);
+			if (end == -1) {
+				i++;
+				continue;
+			}
+			int parameter = Integer.parseInt(template.substring(i + 1, end));
+			fragmentList.add(template.substring(start, i));
+			parameterList.add(parameter);
+			maxParameter = Math.max(maxParameter, parameter);
+			i = end + 1;
+			start = i;
+		}
+		fragmentList.add(template.substring(start));
+
+		this.fragments = fragmentList.toArray(new String[fragmentList.size()]);
+		this.parameters = new int[parameterList.size()];
+		for (int p = 0; p < parameters.length; p++) {
+			parameters[p] = parameterList.get(p);
+		}
+		this.parameterCount = maxParameter + 1;
+
+		int length = 0;
+		for (String fragment : fragments) {
+			length += fragment.length();
+		}
+		this.fixedLength = length;
+	}
+
+	/**
+	 * Returns index of closing brace if there is a placeholder at the given
+	 * position, -1 otherwise.
+	 */
+	private static int placeholderEnd(String template, int index) {
+		if (template.charAt(index) != '{') {
+			return -1;
+		}
+		int i = index + 1;
+		while (i < template.length() && Character.isDigit(template.charAt(i))) {
+			i++;
+		}
+		if (i == index + 1 || i >= template.length() || template.charAt(i) != '}') {
+			return -1;
+		}
+		return i;
+	}
+
+	/**
+	 * Binds the template to given indexes.
+	 *
+	 * @param indexes
+	 *            values of the placeholders in order of parameter numbers
+	 * @return locator usable with {@link BrowserController}
+	 * @throws IllegalArgumentException
+	 *             if there are less values than template parameters
+	 */
+	public String bind(int... indexes) {
+		if (indexes.length < parameterCount) {
+			throw new IllegalArgumentException("Locator template '" + template + "' requires "
+					+ parameterCount + " parameters, got " + indexes.length);
+		}
+		StringBuilder locator = new StringBuilder(fixedLength + parameters.length * 4);
+		locator.append(fragments[0]);
+		for (int p = 0; p < parameters.length; p++) {
+			locator.append(indexes[parameters[p]]);
+			locator.append(fragments[p + 1]);
+		}
+		return locator.toString();
+	}
+
+	/**
+	 * Returns number of template parameters.
+	 *
+	 * @return parameter count
+	 */
+	public int getParameterCount() {
+		return parameterCount;
+	}
+
+	/**
+	 * Returns the template as it was compiled.
+	 *
+	 * @return template string
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+}
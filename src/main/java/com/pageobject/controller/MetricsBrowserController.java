@@ -0,0 +1,725 @@
+package com.pageobject.controller;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * {@link BrowserController} decorator measuring latency of every command.
+ *
+ * <p>
+ * Statistics are kept per method and, for methods working with an element,
+ * per method and locator. Locators beyond {@link #MAX_LOCATORS_PER_METHOD}
+ * are counted under {@link #OTHER_LOCATORS}, so generated locators cannot
+ * grow the statistics without limit. Recording a command costs two
+ * {@link System#nanoTime()} calls and a few atomic increments, so the
+ * decorator may stay on permanently.
+ *
+ * <p>
+ * Commands are not reported to the {@link CommandCounter}, the decorated
+ * controller does that. {@link #getNavigationEpoch()} is only delegated, it
+ * is not a browser command.
+ *
+ * <p>
+ * A report is written in JSON or CSV, depending on the file extension, when
+ * the bean is destroyed:
+ *
+ * <pre>
+ * &lt;bean id="browser" class="com.pageobject.controller.MetricsBrowserController" primary="true"&gt;
+ *     &lt;constructor-arg ref="webDriverBrowser" /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @see #setReportPath(String)
+ */
+public class MetricsBrowserController implements BrowserController, DisposableBean {
+
+	public static final int MAX_LOCATORS_PER_METHOD = 1000;
+	public static final String OTHER_LOCATORS = "(other)";
+
+	private static final Logger logger = LoggerFactory.getLogger(MetricsBrowserController.class);
+	private static final double[] REPORTED_PERCENTILES = { 50, 90, 99 };
+
+	private final BrowserController delegate;
+	private final ConcurrentMap<String, CommandStats> methods = new ConcurrentHashMap<String, CommandStats>();
+	private final ConcurrentMap<String, ConcurrentMap<String, CommandStats>> locators = new ConcurrentHashMap<String, ConcurrentMap<String, CommandStats>>();
+	private String reportPath;
+
+	/**
+	 * Creates a decorator measuring a browser controller.
+	 * @param delegate the controller doing the actual work
+	 */
+	public MetricsBrowserController(BrowserController delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Returns the decorated controller.
+	 * @return the controller doing the actual work
+	 */
+	public BrowserController getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Path of the report written when the bean is destroyed. Files ending
+	 * with <code>.csv</code> are written as CSV, other as JSON. Default is
+	 * empty, i.e. no report.
+	 * <p>Mapped to configuration property: selenium.metrics.report
+	 * @param reportPath path of the report file
+	 */
+	@Value("${selenium.metrics.report:}")
+	public void setReportPath(String reportPath) {
+		this.reportPath = reportPath;
+	}
+
+	/**
+	 * Returns statistics of a method, summed over all locators.
+	 * @param method name of the {@link BrowserController} method
+	 * @return the statistics or <code>null</code> if the method was not called
+	 */
+	public CommandStats getStats(String method) {
+		return methods.get(method);
+	}
+
+	/**
+	 * Returns statistics of a method called with a locator.
+	 * @param method name of the {@link BrowserController} method
+	 * @param locator locator the method was called with
+	 * @return the statistics or <code>null</code> if the method was not called
+	 *         with the locator
+	 */
+	public CommandStats getStats(String method, String locator) {
+		Map<String, CommandStats> byLocator = locators.get(method);
+		return byLocator == null ? null : byLocator.get(locator);
+	}
+
+	/**
+	 * Returns statistics of all called methods sorted by method name.
+	 * @return method name to statistics
+	 */
+	public Map<String, CommandStats> getMethodStats() {
+		return Collections.unmodifiableMap(new TreeMap<String, CommandStats>(methods));
+	}
+
+	/**
+	 * Returns statistics of a method per locator sorted by locator.
+	 * @param method name of the {@link BrowserController} method
+	 * @return locator to statistics
+	 */
+	public Map<String, CommandStats> getLocatorStats(String method) {
+		Map<String, CommandStats> byLocator = locators.get(method);
+		if (byLocator == null) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(new TreeMap<String, CommandStats>(byLocator));
+	}
+
+	/**
+	 * Forgets all collected statistics.
+	 */
+	public void resetStatistics() {
+		methods.clear();
+		locators.clear();
+	}
+
+	/**
+	 * Writes the report if a report path is configured.
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() throws Exception {
+		if (reportPath == null || reportPath.length() == 0) {
+			return;
+		}
+		writeReport(new File(reportPath));
+		logger.info("Browser command metrics written to [{}]", reportPath);
+	}
+
+	/**
+	 * Writes the report to a file, as CSV if the file name ends with
+	 * <code>.csv</code>, as JSON otherwise.
+	 * @param file report file
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeReport(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			if (file.getName().toLowerCase().endsWith(".csv")) {
+				writeCsv(writer);
+			} else {
+				writeJson(writer);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the report as JSON: an array of methods, each with its
+	 * statistics and an array of its locators.
+	 * @param writer target of the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("[\n");
+		boolean firstMethod = true;
+		for (Map.Entry<String, CommandStats> method : getMethodStats().entrySet()) {
+			if (!firstMethod) {
+				writer.write(",\n");
+			}
+			firstMethod = false;
+			writer.write("  {\"method\": " + Json.quote(method.getKey()) + ", ");
+			writeJsonStats(writer, method.getValue());
+			writer.write(", \"locators\": [");
+			boolean firstLocator = true;
+			for (Map.Entry<String, CommandStats> locator : getLocatorStats(method.getKey()).entrySet()) {
+				writer.write(firstLocator ? "\n" : ",\n");
+				firstLocator = false;
+				writer.write("    {\"locator\": " + Json.quote(locator.getKey()) + ", ");
+				writeJsonStats(writer, locator.getValue());
+				writer.write("}");
+			}
+			writer.write(firstLocator ? "]}" : "\n  ]}");
+		}
+		writer.write("\n]\n");
+	}
+
+	/**
+	 * Writes the report as CSV with one line per method and one per method
+	 * and locator. Method lines have an empty locator column.
+	 * @param writer target of the report
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeCsv(Writer writer) throws IOException {
+		writer.write("method,locator,count,failures,totalMs,meanMs,maxMs");
+		for (double percentile : REPORTED_PERCENTILES) {
+			writer.write(",p" + (int) percentile + "Ms");
+		}
+		writer.write("\n");
+		for (Map.Entry<String, CommandStats> method : getMethodStats().entrySet()) {
+			writeCsvLine(writer, method.getKey(), "", method.getValue());
+			for (Map.Entry<String, CommandStats> locator : getLocatorStats(method.getKey()).entrySet()) {
+				writeCsvLine(writer, method.getKey(), locator.getKey(), locator.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns the slowest locators of all methods by total time.
+	 * @param limit maximum number of returned entries
+	 * @return "method locator" to statistics, slowest first
+	 */
+	public List<Map.Entry<String, CommandStats>> getSlowestLocators(int limit) {
+		List<Map.Entry<String, CommandStats>> result = new ArrayList<Map.Entry<String, CommandStats>>();
+		for (Map.Entry<String, ConcurrentMap<String, CommandStats>> method : locators.entrySet()) {
+			for (Map.Entry<String, CommandStats> locator : method.getValue().entrySet()) {
+				result.add(new AbstractMap.SimpleImmutableEntry<String, CommandStats>(
+						method.getKey() + " " + locator.getKey(), locator.getValue()));
+			}
+		}
+		Collections.sort(result, new Comparator<Map.Entry<String, CommandStats>>() {
+			public int compare(Map.Entry<String, CommandStats> e1, Map.Entry<String, CommandStats> e2) {
+				return Long.valueOf(e2.getValue().getTotalTime()).compareTo(e1.getValue().getTotalTime());
+			}
+		});
+		return result.size() > limit ? result.subList(0, limit) : result;
+	}
+
+	/**
+	 * Records one command. Called by every method of the decorator.
+	 * @param method name of the method
+	 * @param locator locator of the element or <code>null</code>
+	 * @param start {@link System#nanoTime()} when the command started
+	 * @param failed whether the command threw an exception
+	 */
+	protected void record(String method, String locator, long start, boolean failed) {
+		long nanos = System.nanoTime() - start;
+		statsOf(methods, method).record(nanos, failed);
+		if (locator != null) {
+			ConcurrentMap<String, CommandStats> byLocator = locators.get(method);
+			if (byLocator == null) {
+				byLocator = new ConcurrentHashMap<String, CommandStats>();
+				ConcurrentMap<String, CommandStats> existing = locators.putIfAbsent(method, byLocator);
+				if (existing != null) {
+					byLocator = existing;
+				}
+			}
+			if (byLocator.size() >= MAX_LOCATORS_PER_METHOD && !byLocator.containsKey(locator)) {
+				locator = OTHER_LOCATORS;
+			}
+			statsOf(byLocator, locator).record(nanos, failed);
+		}
+	}
+
+	private static CommandStats statsOf(ConcurrentMap<String, CommandStats> map, String key) {
+		CommandStats stats = map.get(key);
+		if (stats == null) {
+			stats = new CommandStats();
+			CommandStats existing = map.putIfAbsent(key, stats);
+			if (existing != null) {
+				stats = existing;
+			}
+		}
+		return stats;
+	}
+
+	private static void writeJsonStats(Writer writer, CommandStats stats) throws IOException {
+		writer.write("\"count\": " + stats.getCount()
+				+ ", \"failures\": " + stats.getFailures()
+				+ ", \"totalMs\": " + stats.getTotalTime()
+				+ ", \"meanMs\": " + format(stats.getMeanTime())
+				+ ", \"maxMs\": " + stats.getMaxTime());
+		for (double percentile : REPORTED_PERCENTILES) {
+			writer.write(", \"p" + (int) percentile + "Ms\": " + format(stats.getPercentile(percentile)));
+		}
+	}
+
+	private static void writeCsvLine(Writer writer, String method, String locator, CommandStats stats)
+			throws IOException {
+		writer.write(quoteCsv(method) + "," + quoteCsv(locator) + "," + stats.getCount() + ","
+				+ stats.getFailures() + "," + stats.getTotalTime() + "," + format(stats.getMeanTime()) + ","
+				+ stats.getMaxTime());
+		for (double percentile : REPORTED_PERCENTILES) {
+			writer.write("," + format(stats.getPercentile(percentile)));
+		}
+		writer.write("\n");
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String quoteCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	public void type(String locator, String value) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.type(locator, value);
+			failed = false;
+		} finally {
+			record("type", locator, start, failed);
+		}
+	}
+
+	public void clear(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.clear(locator);
+			failed = false;
+		} finally {
+			record("clear", locator, start, failed);
+		}
+	}
+
+	public void click(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.click(locator);
+			failed = false;
+		} finally {
+			record("click", locator, start, failed);
+		}
+	}
+
+	public void select(String locator, String option) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.select(locator, option);
+			failed = false;
+		} finally {
+			record("select", locator, start, failed);
+		}
+	}
+
+	public void open(String url) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.open(url);
+			failed = false;
+		} finally {
+			record("open", null, start, failed);
+		}
+	}
+
+	public void openAndSelectWindow(String url) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.openAndSelectWindow(url);
+			failed = false;
+		} finally {
+			record("openAndSelectWindow", null, start, failed);
+		}
+	}
+
+	public void closePage() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.closePage();
+			failed = false;
+		} finally {
+			record("closePage", null, start, failed);
+		}
+	}
+
+	public void closeAllBut(String windowIdentifier) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.closeAllBut(windowIdentifier);
+			failed = false;
+		} finally {
+			record("closeAllBut", null, start, failed);
+		}
+	}
+
+	public String getTitle() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getTitle();
+			failed = false;
+			return result;
+		} finally {
+			record("getTitle", null, start, failed);
+		}
+	}
+
+	public String[] getAllWindowTitles() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String[] result = delegate.getAllWindowTitles();
+			failed = false;
+			return result;
+		} finally {
+			record("getAllWindowTitles", null, start, failed);
+		}
+	}
+
+	public String[] getAllWindowNames() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String[] result = delegate.getAllWindowNames();
+			failed = false;
+			return result;
+		} finally {
+			record("getAllWindowNames", null, start, failed);
+		}
+	}
+
+	public void selectWindow(String windowIdentifier) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.selectWindow(windowIdentifier);
+			failed = false;
+		} finally {
+			record("selectWindow", null, start, failed);
+		}
+	}
+
+	public void selectWindowByTitle(String title) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.selectWindowByTitle(title);
+			failed = false;
+		} finally {
+			record("selectWindowByTitle", null, start, failed);
+		}
+	}
+
+	public void selectWindowByName(String name) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.selectWindowByName(name);
+			failed = false;
+		} finally {
+			record("selectWindowByName", null, start, failed);
+		}
+	}
+
+	public String getElementValue(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getElementValue(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("getElementValue", locator, start, failed);
+		}
+	}
+
+	public String getElementAttribute(String locator, String attributeName) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getElementAttribute(locator, attributeName);
+			failed = false;
+			return result;
+		} finally {
+			record("getElementAttribute", locator, start, failed);
+		}
+	}
+
+	public String getText(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getText(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("getText", locator, start, failed);
+		}
+	}
+
+	public boolean isElementPresent(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean result = delegate.isElementPresent(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("isElementPresent", locator, start, failed);
+		}
+	}
+
+	public boolean isElementPresentNow(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean result = delegate.isElementPresentNow(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("isElementPresentNow", locator, start, failed);
+		}
+	}
+
+	public boolean isElementEnabled(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean result = delegate.isElementEnabled(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("isElementEnabled", locator, start, failed);
+		}
+	}
+
+	public int getElementCount(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			int result = delegate.getElementCount(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("getElementCount", locator, start, failed);
+		}
+	}
+
+	public int getElementCountNow(String locator) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			int result = delegate.getElementCountNow(locator);
+			failed = false;
+			return result;
+		} finally {
+			record("getElementCountNow", locator, start, failed);
+		}
+	}
+
+	public void captureScreenshot(String screenshotPath) throws IOException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.captureScreenshot(screenshotPath);
+			failed = false;
+		} finally {
+			record("captureScreenshot", null, start, failed);
+		}
+	}
+
+	public byte[] getScreenshot() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			byte[] result = delegate.getScreenshot();
+			failed = false;
+			return result;
+		} finally {
+			record("getScreenshot", null, start, failed);
+		}
+	}
+
+	public String getPageState() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getPageState();
+			failed = false;
+			return result;
+		} finally {
+			record("getPageState", null, start, failed);
+		}
+	}
+
+	public boolean isPageLoaded() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			boolean result = delegate.isPageLoaded();
+			failed = false;
+			return result;
+		} finally {
+			record("isPageLoaded", null, start, failed);
+		}
+	}
+
+	public void waitForPageToLoad(long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitForPageToLoad(timeout);
+			failed = false;
+		} finally {
+			record("waitForPageToLoad", null, start, failed);
+		}
+	}
+
+	public void waitForElementPresent(String locator, long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitForElementPresent(locator, timeout);
+			failed = false;
+		} finally {
+			record("waitForElementPresent", locator, start, failed);
+		}
+	}
+
+	public void waitForElementPresentInBrowser(String locator, long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitForElementPresentInBrowser(locator, timeout);
+			failed = false;
+		} finally {
+			record("waitForElementPresentInBrowser", locator, start, failed);
+		}
+	}
+
+	public void waitUntil(String script, long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitUntil(script, timeout);
+			failed = false;
+		} finally {
+			record("waitUntil", null, start, failed);
+		}
+	}
+
+	public void waitUntil(WaitCondition condition, long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitUntil(condition, timeout);
+			failed = false;
+		} finally {
+			record("waitUntil", null, start, failed);
+		}
+	}
+
+	public void waitForIdle(long quietPeriod, long timeout) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitForIdle(quietPeriod, timeout);
+			failed = false;
+		} finally {
+			record("waitForIdle", null, start, failed);
+		}
+	}
+
+	public void waitFor(long time) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			delegate.waitFor(time);
+			failed = false;
+		} finally {
+			record("waitFor", null, start, failed);
+		}
+	}
+
+	public Object executeScript(String script) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			Object result = delegate.executeScript(script);
+			failed = false;
+			return result;
+		} finally {
+			record("executeScript", null, start, failed);
+		}
+	}
+
+	public String getPageSource() {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			String result = delegate.getPageSource();
+			failed = false;
+			return result;
+		} finally {
+			record("getPageSource", null, start, failed);
+		}
+	}
+
+	public long getNavigationEpoch() {
+		return delegate.getNavigationEpoch();
+	}
+
+}
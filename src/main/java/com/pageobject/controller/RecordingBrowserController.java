@@ -0,0 +1,616 @@
+package com.pageobject.controller;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * {@link BrowserController} decorator recording every command with its
+ * arguments, result and duration, so a test run can be replayed offline by
+ * {@link ReplayingBrowserController}.
+ *
+ * <p>
+ * The recording is a JSON-lines file, one command per line:
+ *
+ * <pre>
+ * {"seq":3,"method":"getText","args":["id=total"],"nanos":1834021,"nested":0,"result":"42"}
+ * {"seq":4,"method":"click","args":["id=save"],"nanos":951230,"nested":0,"error":{"type":"org.openqa.selenium.NoSuchElementException","message":"..."}}
+ * </pre>
+ *
+ * <p>
+ * Commands issued by a {@link WaitCondition} while waiting are recorded as
+ * well and counted in <code>nested</code> of the wait. Conditions are
+ * recorded by their class name, elements returned by scripts by their string
+ * representation. Screenshots are left out unless
+ * {@link #setRecordScreenshots(boolean)} is enabled.
+ * {@link #getNavigationEpoch()} is not recorded, the replay keeps its own.
+ *
+ * <p>
+ * Nested commands are recognized by their sequence numbers, so a recorder
+ * must be used by one thread at a time, like the browser it decorates. The
+ * file is flushed and closed when the bean is destroyed:
+ *
+ * <pre>
+ * &lt;bean id="browser" class="com.pageobject.controller.RecordingBrowserController" primary="true"&gt;
+ *     &lt;constructor-arg ref="webDriverBrowser" /&gt;
+ *     &lt;constructor-arg value="${selenium.record.file}" /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ */
+public class RecordingBrowserController implements BrowserController, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(RecordingBrowserController.class);
+
+	private final BrowserController delegate;
+	private final File file;
+	private final Writer writer;
+	private final AtomicLong sequence = new AtomicLong();
+	private boolean recordScreenshots = false;
+
+	/**
+	 * Creates a decorator recording a browser controller into a file. An
+	 * existing file is replaced.
+	 * @param delegate the controller doing the actual work
+	 * @param file recording file
+	 * @throws IOException if the file cannot be created
+	 */
+	public RecordingBrowserController(BrowserController delegate, File file) throws IOException {
+		this.delegate = delegate;
+		this.file = file;
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 64 * 1024);
+	}
+
+	/**
+	 * Returns the decorated controller.
+	 * @return the controller doing the actual work
+	 */
+	public BrowserController getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Whether to record screenshot images. They are large and rarely needed
+	 * for performance analysis, so the default is <code>false</code> and the
+	 * replay returns empty images.
+	 * @param recordScreenshots whether to record screenshots
+	 */
+	public void setRecordScreenshots(boolean recordScreenshots) {
+		this.recordScreenshots = recordScreenshots;
+	}
+
+	/**
+	 * Returns the number of recorded commands.
+	 * @return command count
+	 */
+	public long getCommandCount() {
+		return sequence.get();
+	}
+
+	/**
+	 * Writes buffered commands to the file.
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Closes the recording file.
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public synchronized void destroy() throws Exception {
+		writer.close();
+		logger.info("{} browser commands recorded to [{}]", sequence.get(), file);
+	}
+
+	/**
+	 * Starts a command.
+	 * @return sequence number of the command
+	 */
+	protected long begin() {
+		return sequence.getAndIncrement();
+	}
+
+	/**
+	 * Records one command. Called by every method of the decorator when the
+	 * command finishes.
+	 * @param seq sequence number returned by {@link #begin()}
+	 * @param method name of the method
+	 * @param start {@link System#nanoTime()} when the command started
+	 * @param result result of the command or <code>null</code>
+	 * @param error exception thrown by the command or <code>null</code>
+	 * @param args arguments of the command
+	 */
+	protected void record(long seq, String method, long start, Object result, Throwable error, Object... args) {
+		long nanos = System.nanoTime() - start;
+		Map<String, Object> command = new LinkedHashMap<String, Object>();
+		command.put("seq", seq);
+		command.put("method", method);
+		command.put("args", Arrays.asList(args));
+		command.put("nanos", nanos);
+		command.put("nested", sequence.get() - seq - 1);
+		if (error != null) {
+			Map<String, Object> exception = new LinkedHashMap<String, Object>();
+			exception.put("type", error.getClass().getName());
+			exception.put("message", error.getMessage());
+			command.put("error", exception);
+		} else if (result != null) {
+			command.put("result", result);
+		}
+
+		StringBuilder line = new StringBuilder(128);
+		Json.append(command, line);
+		line.append('\n');
+		synchronized (this) {
+			try {
+				writer.write(line.toString());
+			} catch (IOException e) {
+				logger.warn("Unable to record browser command " + method + " to [" + file + "]", e);
+			}
+		}
+	}
+
+	private static String encode(byte[] data) {
+		return data == null ? null : Base64.getEncoder().encodeToString(data);
+	}
+
+	public void type(String locator, String value) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.type(locator, value);
+			record(sequence, "type", start, null, null, locator, value);
+		} catch (RuntimeException e) {
+			record(sequence, "type", start, null, e, locator, value);
+			throw e;
+		}
+	}
+
+	public void clear(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.clear(locator);
+			record(sequence, "clear", start, null, null, locator);
+		} catch (RuntimeException e) {
+			record(sequence, "clear", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public void click(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.click(locator);
+			record(sequence, "click", start, null, null, locator);
+		} catch (RuntimeException e) {
+			record(sequence, "click", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public void select(String locator, String option) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.select(locator, option);
+			record(sequence, "select", start, null, null, locator, option);
+		} catch (RuntimeException e) {
+			record(sequence, "select", start, null, e, locator, option);
+			throw e;
+		}
+	}
+
+	public void open(String url) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.open(url);
+			record(sequence, "open", start, null, null, url);
+		} catch (RuntimeException e) {
+			record(sequence, "open", start, null, e, url);
+			throw e;
+		}
+	}
+
+	public void openAndSelectWindow(String url) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.openAndSelectWindow(url);
+			record(sequence, "openAndSelectWindow", start, null, null, url);
+		} catch (RuntimeException e) {
+			record(sequence, "openAndSelectWindow", start, null, e, url);
+			throw e;
+		}
+	}
+
+	public void closePage() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.closePage();
+			record(sequence, "closePage", start, null, null);
+		} catch (RuntimeException e) {
+			record(sequence, "closePage", start, null, e);
+			throw e;
+		}
+	}
+
+	public void closeAllBut(String windowIdentifier) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.closeAllBut(windowIdentifier);
+			record(sequence, "closeAllBut", start, null, null, windowIdentifier);
+		} catch (RuntimeException e) {
+			record(sequence, "closeAllBut", start, null, e, windowIdentifier);
+			throw e;
+		}
+	}
+
+	public String getTitle() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getTitle();
+			record(sequence, "getTitle", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getTitle", start, null, e);
+			throw e;
+		}
+	}
+
+	public String[] getAllWindowTitles() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String[] result = delegate.getAllWindowTitles();
+			record(sequence, "getAllWindowTitles", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getAllWindowTitles", start, null, e);
+			throw e;
+		}
+	}
+
+	public String[] getAllWindowNames() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String[] result = delegate.getAllWindowNames();
+			record(sequence, "getAllWindowNames", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getAllWindowNames", start, null, e);
+			throw e;
+		}
+	}
+
+	public void selectWindow(String windowIdentifier) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.selectWindow(windowIdentifier);
+			record(sequence, "selectWindow", start, null, null, windowIdentifier);
+		} catch (RuntimeException e) {
+			record(sequence, "selectWindow", start, null, e, windowIdentifier);
+			throw e;
+		}
+	}
+
+	public void selectWindowByTitle(String title) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.selectWindowByTitle(title);
+			record(sequence, "selectWindowByTitle", start, null, null, title);
+		} catch (RuntimeException e) {
+			record(sequence, "selectWindowByTitle", start, null, e, title);
+			throw e;
+		}
+	}
+
+	public void selectWindowByName(String name) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.selectWindowByName(name);
+			record(sequence, "selectWindowByName", start, null, null, name);
+		} catch (RuntimeException e) {
+			record(sequence, "selectWindowByName", start, null, e, name);
+			throw e;
+		}
+	}
+
+	public String getElementValue(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getElementValue(locator);
+			record(sequence, "getElementValue", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getElementValue", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public String getElementAttribute(String locator, String attributeName) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getElementAttribute(locator, attributeName);
+			record(sequence, "getElementAttribute", start, result, null, locator, attributeName);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getElementAttribute", start, null, e, locator, attributeName);
+			throw e;
+		}
+	}
+
+	public String getText(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getText(locator);
+			record(sequence, "getText", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getText", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public boolean isElementPresent(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			boolean result = delegate.isElementPresent(locator);
+			record(sequence, "isElementPresent", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "isElementPresent", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public boolean isElementPresentNow(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			boolean result = delegate.isElementPresentNow(locator);
+			record(sequence, "isElementPresentNow", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "isElementPresentNow", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public boolean isElementEnabled(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			boolean result = delegate.isElementEnabled(locator);
+			record(sequence, "isElementEnabled", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "isElementEnabled", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public int getElementCount(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			int result = delegate.getElementCount(locator);
+			record(sequence, "getElementCount", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getElementCount", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public int getElementCountNow(String locator) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			int result = delegate.getElementCountNow(locator);
+			record(sequence, "getElementCountNow", start, result, null, locator);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getElementCountNow", start, null, e, locator);
+			throw e;
+		}
+	}
+
+	public void captureScreenshot(String screenshotPath) throws IOException {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.captureScreenshot(screenshotPath);
+			record(sequence, "captureScreenshot", start, null, null, screenshotPath);
+		} catch (RuntimeException e) {
+			record(sequence, "captureScreenshot", start, null, e, screenshotPath);
+			throw e;
+		} catch (IOException e) {
+			record(sequence, "captureScreenshot", start, null, e, screenshotPath);
+			throw e;
+		}
+	}
+
+	public byte[] getScreenshot() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			byte[] result = delegate.getScreenshot();
+			record(sequence, "getScreenshot", start, recordScreenshots ? encode(result) : null, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getScreenshot", start, null, e);
+			throw e;
+		}
+	}
+
+	public String getPageState() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getPageState();
+			record(sequence, "getPageState", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getPageState", start, null, e);
+			throw e;
+		}
+	}
+
+	public boolean isPageLoaded() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			boolean result = delegate.isPageLoaded();
+			record(sequence, "isPageLoaded", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "isPageLoaded", start, null, e);
+			throw e;
+		}
+	}
+
+	public void waitForPageToLoad(long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitForPageToLoad(timeout);
+			record(sequence, "waitForPageToLoad", start, null, null, timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitForPageToLoad", start, null, e, timeout);
+			throw e;
+		}
+	}
+
+	public void waitForElementPresent(String locator, long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitForElementPresent(locator, timeout);
+			record(sequence, "waitForElementPresent", start, null, null, locator, timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitForElementPresent", start, null, e, locator, timeout);
+			throw e;
+		}
+	}
+
+	public void waitForElementPresentInBrowser(String locator, long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitForElementPresentInBrowser(locator, timeout);
+			record(sequence, "waitForElementPresentInBrowser", start, null, null, locator, timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitForElementPresentInBrowser", start, null, e, locator, timeout);
+			throw e;
+		}
+	}
+
+	public void waitUntil(String script, long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitUntil(script, timeout);
+			record(sequence, "waitUntil", start, null, null, script, timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitUntil", start, null, e, script, timeout);
+			throw e;
+		}
+	}
+
+	public void waitUntil(WaitCondition condition, long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitUntil(condition, timeout);
+			record(sequence, "waitUntil", start, null, null, condition.getClass().getName(), timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitUntil", start, null, e, condition.getClass().getName(), timeout);
+			throw e;
+		}
+	}
+
+	public void waitForIdle(long quietPeriod, long timeout) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitForIdle(quietPeriod, timeout);
+			record(sequence, "waitForIdle", start, null, null, quietPeriod, timeout);
+		} catch (RuntimeException e) {
+			record(sequence, "waitForIdle", start, null, e, quietPeriod, timeout);
+			throw e;
+		}
+	}
+
+	public void waitFor(long time) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			delegate.waitFor(time);
+			record(sequence, "waitFor", start, null, null, time);
+		} catch (RuntimeException e) {
+			record(sequence, "waitFor", start, null, e, time);
+			throw e;
+		}
+	}
+
+	public Object executeScript(String script) {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			Object result = delegate.executeScript(script);
+			record(sequence, "executeScript", start, result, null, script);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "executeScript", start, null, e, script);
+			throw e;
+		}
+	}
+
+	public String getPageSource() {
+		long sequence = begin();
+		long start = System.nanoTime();
+		try {
+			String result = delegate.getPageSource();
+			record(sequence, "getPageSource", start, result, null);
+			return result;
+		} catch (RuntimeException e) {
+			record(sequence, "getPageSource", start, null, e);
+			throw e;
+		}
+	}
+
+	public long getNavigationEpoch() {
+		return delegate.getNavigationEpoch();
+	}
+
+}
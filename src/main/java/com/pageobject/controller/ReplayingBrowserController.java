@@ -0,0 +1,499 @@
+package com.pageobject.controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openqa.selenium.WebDriverException;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * {@link BrowserController} serving commands recorded by
+ * {@link RecordingBrowserController}, without any browser. Useful to profile
+ * the framework and the tests themselves, or to estimate how a test would
+ * perform with a faster or slower browser.
+ *
+ * <p>
+ * Every call consumes the next recorded command and returns its result or
+ * throws its exception after waiting its recorded duration multiplied by
+ * the {@link #setTimeScale(double) time scale}. Scale 0 replays as fast as
+ * possible. A call not matching the recorded method, or its arguments in
+ * {@link #setStrict(boolean) strict} mode, fails with
+ * {@link IllegalStateException}, because the test took a different path than
+ * during the recording.
+ *
+ * <p>
+ * A wait for a {@link WaitCondition} evaluates the condition until it
+ * consumed the commands recorded during the wait, the condition is expected
+ * to call this controller.
+ *
+ * <p>
+ * The navigation epoch is increased by the replayed commands changing the
+ * page and replayed commands are reported to the {@link CommandCounter}, like
+ * {@link WebDriverBrowserImpl} does.
+ *
+ * <p>
+ * Exceptions are recreated from their recorded type if it has a constructor
+ * taking the message, otherwise {@link WebDriverException} is thrown.
+ */
+public class ReplayingBrowserController implements BrowserController {
+
+	private static final Set<String> PAGE_CHANGING_COMMANDS = new HashSet<String>(Arrays.asList("click", "select",
+			"open", "openAndSelectWindow", "closePage", "closeAllBut", "selectWindow", "selectWindowByTitle",
+			"selectWindowByName"));
+	private static final Set<String> LOCATOR_COMMANDS = new HashSet<String>(Arrays.asList("type", "clear", "click",
+			"select", "getElementValue", "getElementAttribute", "getText", "isElementPresent", "isElementPresentNow",
+			"isElementEnabled", "getElementCount", "getElementCountNow", "waitForElementPresent", "waitForElementPresentInBrowser"));
+
+	private final File file;
+	private final List<RecordedCommand> commands;
+	private int position;
+	private double timeScale = 1.0;
+	private boolean strict = true;
+	private final AtomicLong navigationEpoch = new AtomicLong();
+
+	/**
+	 * Loads a recording.
+	 * @param file file written by {@link RecordingBrowserController}
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a valid recording
+	 */
+	public ReplayingBrowserController(File file) throws IOException {
+		this.file = file;
+		this.commands = load(file);
+	}
+
+	/**
+	 * Multiplier of recorded durations. Default is 1, i.e. original timing,
+	 * 0 replays without waiting.
+	 * <p>Mapped to configuration property: selenium.replay.timeScale
+	 * @param timeScale the multiplier
+	 */
+	@Value("${selenium.replay.timeScale:1}")
+	public void setTimeScale(double timeScale) {
+		if (timeScale < 0) {
+			throw new IllegalArgumentException("Time scale must not be negative: " + timeScale);
+		}
+		this.timeScale = timeScale;
+	}
+
+	/**
+	 * Whether arguments of calls must match the recorded arguments, not only
+	 * methods. Default is <code>true</code>.
+	 * <p>Mapped to configuration property: selenium.replay.strict
+	 * @param strict whether to compare arguments
+	 */
+	@Value("${selenium.replay.strict:true}")
+	public void setStrict(boolean strict) {
+		this.strict = strict;
+	}
+
+	/**
+	 * Returns the number of recorded commands not replayed yet.
+	 * @return remaining command count
+	 */
+	public synchronized int getRemaining() {
+		return commands.size() - position;
+	}
+
+	/**
+	 * Starts the replay from the first command again.
+	 */
+	public synchronized void rewind() {
+		position = 0;
+	}
+
+	/**
+	 * Takes the next recorded command and checks it matches the call.
+	 * @param method name of the called method
+	 * @param args arguments of the call
+	 * @return the recorded command
+	 * @throws IllegalStateException if the recording is exhausted or does not
+	 *         match the call
+	 */
+	protected synchronized RecordedCommand next(String method, Object... args) {
+		if (position >= commands.size()) {
+			throw new IllegalStateException("Recording [" + file + "] has no more commands, called "
+					+ describe(method, Arrays.asList(args)));
+		}
+		RecordedCommand command = commands.get(position);
+		if (!command.method.equals(method) || strict && !command.args.equals(normalize(args))) {
+			throw new IllegalStateException("Replay of [" + file + "] diverged at command " + command.seq
+					+ ": recorded " + describe(command.method, command.args)
+					+ ", called " + describe(method, Arrays.asList(args)));
+		}
+		position++;
+		CommandCounter.record(method, LOCATOR_COMMANDS.contains(method) ? (String) args[0] : null);
+		if (PAGE_CHANGING_COMMANDS.contains(method)) {
+			navigationEpoch.incrementAndGet();
+		}
+		return command;
+	}
+
+	/**
+	 * Waits for the recorded duration of a command and throws its exception,
+	 * if it failed.
+	 * @param command the command to replay
+	 */
+	protected void replay(RecordedCommand command) {
+		pause(command);
+		if (command.errorType != null) {
+			throw toException(command);
+		}
+	}
+
+	private void pause(RecordedCommand command) {
+		long nanos = (long) (command.ownNanos * timeScale);
+		long deadline = System.nanoTime() + nanos;
+		while (nanos > 0) {
+			LockSupport.parkNanos(nanos);
+			nanos = deadline - System.nanoTime();
+		}
+	}
+
+	/**
+	 * Evaluates a condition until it consumes the commands nested in a wait.
+	 * A condition calling no commands is evaluated once and the nested
+	 * commands are skipped.
+	 */
+	private void replayNested(RecordedCommand command, WaitCondition condition) {
+		int end;
+		synchronized (this) {
+			end = position + command.nested;
+		}
+		while (true) {
+			int before;
+			synchronized (this) {
+				before = position;
+				if (position >= end) {
+					return;
+				}
+			}
+			condition.isSatisfied();
+			synchronized (this) {
+				if (position == before) {
+					position = end;
+				}
+			}
+		}
+	}
+
+	private RuntimeException toException(RecordedCommand command) {
+		try {
+			Class<?> type = Class.forName(command.errorType);
+			if (RuntimeException.class.isAssignableFrom(type)) {
+				return (RuntimeException) type.getConstructor(String.class).newInstance(command.errorMessage);
+			}
+		} catch (Exception e) {
+			// fall back to a generic exception
+		}
+		return new WebDriverException(command.errorType + ": " + command.errorMessage);
+	}
+
+	private static Object normalize(Object[] args) {
+		StringBuilder json = new StringBuilder();
+		Json.append(args, json);
+		return Json.parse(json.toString());
+	}
+
+	private static String describe(String method, List<?> args) {
+		StringBuilder sb = new StringBuilder(method).append('(');
+		for (int i = 0; i < args.size(); i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			Json.append(args.get(i), sb);
+		}
+		return sb.append(')').toString();
+	}
+
+	private static String[] toStringArray(Object result) {
+		if (result == null) {
+			return null;
+		}
+		List<?> list = (List<?>) result;
+		return list.toArray(new String[list.size()]);
+	}
+
+	private static byte[] decode(Object result) {
+		return result == null ? new byte[0] : Base64.getDecoder().decode((String) result);
+	}
+
+	private static List<RecordedCommand> load(File file) throws IOException {
+		List<RecordedCommand> commands = new ArrayList<RecordedCommand>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				number++;
+				if (line.trim().length() == 0) {
+					continue;
+				}
+				try {
+					commands.add(new RecordedCommand((Map<?, ?>) Json.parse(line)));
+				} catch (RuntimeException e) {
+					throw new IllegalArgumentException("Invalid command at line " + number + " of [" + file + "]", e);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		// commands are written when they finish, nested commands before their wait
+		Collections.sort(commands, new Comparator<RecordedCommand>() {
+			public int compare(RecordedCommand c1, RecordedCommand c2) {
+				return Long.valueOf(c1.seq).compareTo(c2.seq);
+			}
+		});
+		for (int i = 0; i < commands.size(); i++) {
+			RecordedCommand command = commands.get(i);
+			int child = i + 1;
+			while (child <= i + command.nested && child < commands.size()) {
+				command.ownNanos -= commands.get(child).nanos;
+				child += commands.get(child).nested + 1;
+			}
+			command.ownNanos = Math.max(command.ownNanos, 0);
+		}
+		return commands;
+	}
+
+	/**
+	 * One line of a recording.
+	 */
+	protected static class RecordedCommand {
+		private final long seq;
+		private final String method;
+		private final List<?> args;
+		private final long nanos;
+		private final int nested;
+		private final Object result;
+		private final String errorType;
+		private final String errorMessage;
+		private long ownNanos;
+
+		RecordedCommand(Map<?, ?> json) {
+			this.seq = ((Number) json.get("seq")).longValue();
+			this.method = (String) json.get("method");
+			this.args = json.get("args") == null ? Collections.emptyList() : (List<?>) json.get("args");
+			this.nanos = ((Number) json.get("nanos")).longValue();
+			this.nested = json.get("nested") == null ? 0 : ((Number) json.get("nested")).intValue();
+			this.result = json.get("result");
+			Map<?, ?> error = (Map<?, ?>) json.get("error");
+			this.errorType = error == null ? null : (String) error.get("type");
+			this.errorMessage = error == null ? null : (String) error.get("message");
+			this.ownNanos = nanos;
+			if (method == null) {
+				throw new IllegalArgumentException("Missing method");
+			}
+		}
+
+		boolean isError(Class<? extends Throwable> type) {
+			if (errorType == null) {
+				return false;
+			}
+			try {
+				return type.isAssignableFrom(Class.forName(errorType));
+			} catch (ClassNotFoundException e) {
+				return false;
+			}
+		}
+	}
+
+	public void type(String locator, String value) {
+		replay(next("type", locator, value));
+	}
+
+	public void clear(String locator) {
+		replay(next("clear", locator));
+	}
+
+	public void click(String locator) {
+		replay(next("click", locator));
+	}
+
+	public void select(String locator, String option) {
+		replay(next("select", locator, option));
+	}
+
+	public void open(String url) {
+		replay(next("open", url));
+	}
+
+	public void openAndSelectWindow(String url) {
+		replay(next("openAndSelectWindow", url));
+	}
+
+	public void closePage() {
+		replay(next("closePage"));
+	}
+
+	public void closeAllBut(String windowIdentifier) {
+		replay(next("closeAllBut", windowIdentifier));
+	}
+
+	public String getTitle() {
+		RecordedCommand command = next("getTitle");
+		replay(command);
+		return (String) command.result;
+	}
+
+	public String[] getAllWindowTitles() {
+		RecordedCommand command = next("getAllWindowTitles");
+		replay(command);
+		return toStringArray(command.result);
+	}
+
+	public String[] getAllWindowNames() {
+		RecordedCommand command = next("getAllWindowNames");
+		replay(command);
+		return toStringArray(command.result);
+	}
+
+	public void selectWindow(String windowIdentifier) {
+		replay(next("selectWindow", windowIdentifier));
+	}
+
+	public void selectWindowByTitle(String title) {
+		replay(next("selectWindowByTitle", title));
+	}
+
+	public void selectWindowByName(String name) {
+		replay(next("selectWindowByName", name));
+	}
+
+	public String getElementValue(String locator) {
+		RecordedCommand command = next("getElementValue", locator);
+		replay(command);
+		return (String) command.result;
+	}
+
+	public String getElementAttribute(String locator, String attributeName) {
+		RecordedCommand command = next("getElementAttribute", locator, attributeName);
+		replay(command);
+		return (String) command.result;
+	}
+
+	public String getText(String locator) {
+		RecordedCommand command = next("getText", locator);
+		replay(command);
+		return (String) command.result;
+	}
+
+	public boolean isElementPresent(String locator) {
+		RecordedCommand command = next("isElementPresent", locator);
+		replay(command);
+		return Boolean.TRUE.equals(command.result);
+	}
+
+	public boolean isElementPresentNow(String locator) {
+		RecordedCommand command = next("isElementPresentNow", locator);
+		replay(command);
+		return Boolean.TRUE.equals(command.result);
+	}
+
+	public boolean isElementEnabled(String locator) {
+		RecordedCommand command = next("isElementEnabled", locator);
+		replay(command);
+		return Boolean.TRUE.equals(command.result);
+	}
+
+	public int getElementCount(String locator) {
+		RecordedCommand command = next("getElementCount", locator);
+		replay(command);
+		return ((Number) command.result).intValue();
+	}
+
+	public int getElementCountNow(String locator) {
+		RecordedCommand command = next("getElementCountNow", locator);
+		replay(command);
+		return ((Number) command.result).intValue();
+	}
+
+	public void captureScreenshot(String screenshotPath) throws IOException {
+		RecordedCommand command = next("captureScreenshot", screenshotPath);
+		if (command.isError(IOException.class)) {
+			pause(command);
+			throw new IOException(command.errorMessage);
+		}
+		replay(command);
+	}
+
+	public byte[] getScreenshot() {
+		RecordedCommand command = next("getScreenshot");
+		replay(command);
+		return decode(command.result);
+	}
+
+	public String getPageState() {
+		RecordedCommand command = next("getPageState");
+		replay(command);
+		return (String) command.result;
+	}
+
+	public boolean isPageLoaded() {
+		RecordedCommand command = next("isPageLoaded");
+		replay(command);
+		return Boolean.TRUE.equals(command.result);
+	}
+
+	public void waitForPageToLoad(long timeout) {
+		replay(next("waitForPageToLoad", timeout));
+	}
+
+	public void waitForElementPresent(String locator, long timeout) {
+		replay(next("waitForElementPresent", locator, timeout));
+	}
+
+	public void waitForElementPresentInBrowser(String locator, long timeout) {
+		replay(next("waitForElementPresentInBrowser", locator, timeout));
+	}
+
+	public void waitUntil(String script, long timeout) {
+		replay(next("waitUntil", script, timeout));
+	}
+
+	public void waitUntil(WaitCondition condition, long timeout) {
+		RecordedCommand command = next("waitUntil", condition.getClass().getName(), timeout);
+		replayNested(command, condition);
+		replay(command);
+	}
+
+	public void waitForIdle(long quietPeriod, long timeout) {
+		replay(next("waitForIdle", quietPeriod, timeout));
+	}
+
+	public void waitFor(long time) {
+		replay(next("waitFor", time));
+	}
+
+	public Object executeScript(String script) {
+		RecordedCommand command = next("executeScript", script);
+		replay(command);
+		return command.result;
+	}
+
+	public String getPageSource() {
+		RecordedCommand command = next("getPageSource");
+		replay(command);
+		return (String) command.result;
+	}
+
+	public long getNavigationEpoch() {
+		return navigationEpoch.get();
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.pageobject.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Navigation epochs of {@link BrowserController}s which do not track page
+ * changes. Every epoch is new, so the page always looks changed.
+ */
+final class UntrackedNavigation {
+
+	private static final AtomicLong EPOCH = new AtomicLong();
+
+	private UntrackedNavigation() {
+	}
+
+	static long nextEpoch() {
+		return EPOCH.incrementAndGet();
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.pageobject.controller;
+
+/**
+ * Condition to wait for using {@link BrowserController#waitUntil(WaitCondition, long)}.
+ * Implement {@link Object#toString()} to get a meaningful timeout message.
+ *
+ * <pre>
+ * browser.waitUntil(new WaitCondition() {
+ *     public boolean isSatisfied() {
+ *         return browser.isElementEnabled("login");
+ *     }
+ * }, 5000);
+ * </pre>
+ *
+ * @see WaitEngine
+ */
+public interface WaitCondition {
+
+	/**
+	 * Evaluates the condition. Called repeatedly until it returns
+	 * <code>true</code> or the wait times out.
+	 *
+	 * @return true if the condition is fulfilled, false otherwise.
+	 */
+	public boolean isSatisfied();
+
+}
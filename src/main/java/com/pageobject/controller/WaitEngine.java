@@ -0,0 +1,191 @@
+package com.pageobject.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Waits for {@link WaitCondition}s with a real deadline and adaptive backoff.
+ *
+ * <p>
+ * The condition is evaluated immediately, so a condition which is already
+ * fulfilled does not cost any sleep. Then the poll interval starts at
+ * {@link #setInitialPollInterval(long)} and grows by
+ * {@link #setBackoffFactor(double)} up to {@link #setMaxPollInterval(long)}.
+ * The last sleep is shortened so the wait never exceeds its timeout.
+ *
+ * <p>
+ * The engine keeps statistics of all waits: number of waits, timeouts,
+ * condition evaluations and total and maximum time spent waiting. One engine
+ * may be shared by several threads.
+ */
+public class WaitEngine {
+
+	public static final long DEFAULT_INITIAL_POLL_INTERVAL = 10;
+	public static final long DEFAULT_MAX_POLL_INTERVAL = 500;
+	public static final double DEFAULT_BACKOFF_FACTOR = 2;
+
+	private long initialPollInterval = DEFAULT_INITIAL_POLL_INTERVAL;
+	private long maxPollInterval = DEFAULT_MAX_POLL_INTERVAL;
+	private double backoffFactor = DEFAULT_BACKOFF_FACTOR;
+
+	private final AtomicLong waits = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong polls = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * First poll interval after the condition was not fulfilled immediately.
+	 * Default is 10 ms.
+	 *
+	 * @param initialPollInterval
+	 *            interval in milliseconds
+	 */
+	public void setInitialPollInterval(long initialPollInterval) {
+		this.initialPollInterval = Math.max(1, initialPollInterval);
+	}
+
+	/**
+	 * Upper limit of the poll interval. Default is 500 ms.
+	 *
+	 * @param maxPollInterval
+	 *            interval in milliseconds
+	 */
+	public void setMaxPollInterval(long maxPollInterval) {
+		this.maxPollInterval = Math.max(1, maxPollInterval);
+	}
+
+	/**
+	 * Factor the poll interval is multiplied by after each unsuccessful poll.
+	 * Default is 2, use 1 for fixed step polling.
+	 *
+	 * @param backoffFactor
+	 *            factor greater or equal to 1
+	 */
+	public void setBackoffFactor(double backoffFactor) {
+		this.backoffFactor = Math.max(1, backoffFactor);
+	}
+
+	/**
+	 * Waits until the condition is fulfilled.
+	 *
+	 * @param condition
+	 *            the condition that is supposed to be fulfilled.
+	 * @param timeout
+	 *            the amount of time that should be waited at top, expressed
+	 *            in milliseconds.
+	 * @throws TimeoutException
+	 *             if the condition is not fulfilled within the timeout
+	 */
+	public void waitUntil(WaitCondition condition, long timeout) {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+		long interval = initialPollInterval;
+		boolean satisfied = false;
+		try {
+			while (true) {
+				polls.incrementAndGet();
+				if (condition.isSatisfied()) {
+					satisfied = true;
+					return;
+				}
+
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					throw new TimeoutException("Timed out after " + timeout + " ms waiting for " + condition);
+				}
+				sleep(Math.min(interval, remaining), condition);
+				interval = Math.min(maxPollInterval, (long) Math.ceil(interval * backoffFactor));
+			}
+		} finally {
+			record(System.nanoTime() - start, satisfied);
+		}
+	}
+
+	private void sleep(long millis, WaitCondition condition) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WebDriverException("Interrupted while waiting for " + condition, e);
+		}
+	}
+
+	private void record(long waitNanos, boolean satisfied) {
+		waits.incrementAndGet();
+		if (!satisfied) {
+			timeouts.incrementAndGet();
+		}
+		totalWaitNanos.addAndGet(waitNanos);
+		long max = maxWaitNanos.get();
+		while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+			max = maxWaitNanos.get();
+		}
+	}
+
+	/**
+	 * Returns number of finished waits.
+	 *
+	 * @return wait count
+	 */
+	public long getWaitCount() {
+		return waits.get();
+	}
+
+	/**
+	 * Returns number of waits which timed out or failed.
+	 *
+	 * @return timeout count
+	 */
+	public long getTimeoutCount() {
+		return timeouts.get();
+	}
+
+	/**
+	 * Returns number of condition evaluations.
+	 *
+	 * @return poll count
+	 */
+	public long getPollCount() {
+		return polls.get();
+	}
+
+	/**
+	 * Returns total time spent in waits.
+	 *
+	 * @return time in milliseconds
+	 */
+	public long getTotalWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+	}
+
+	/**
+	 * Returns the longest wait.
+	 *
+	 * @return time in milliseconds
+	 */
+	public long getMaxWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+	}
+
+	/**
+	 * Resets all statistics.
+	 */
+	public void resetStatistics() {
+		waits.set(0);
+		timeouts.set(0);
+		polls.set(0);
+		totalWaitNanos.set(0);
+		maxWaitNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "WaitEngine[waits=" + waits.get() + ", timeouts=" + timeouts.get() + ", polls=" + polls.get()
+				+ ", totalWaitTime=" + getTotalWaitTime() + " ms, maxWaitTime=" + getMaxWaitTime() + " ms]";
+	}
+
+}
@@ -1,49 +1,282 @@
 package com.pageobject.controller;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriver.Timeouts;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.Augmenter;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 
 /**
  * WebDriver implementation of BrowserController.
  * 
+ * <p>Every command is reported to the {@link CommandCounter} of the calling
+ * thread, once per call of this controller. Commands the controller issues
+ * itself, e.g. polling in waits, are not counted.
+ * 
  * @author michal.nahlik
  *
  */
-public class WebDriverBrowserImpl implements BrowserController{
+public class WebDriverBrowserImpl implements BrowserController, BeanNameAware, BeanFactoryAware,
+		InitializingBean, DisposableBean {
 
-	private long waitStep = 100;
+	private static final int MAX_CACHED_ELEMENTS = 256;
+	private static final long ASYNC_SCRIPT_TIMEOUT_MARGIN = 5000;
+	private static final long DEFAULT_IDLE_TIMER_DELAY = 1000;
+	private static final int MAX_IDLE_WAIT_ATTEMPTS = 3;
+	/** Name of {@link com.pageobject.component.BrowserScope}. */
+	private static final String BROWSER_SCOPE = "browser";
+	
+	private WaitEngine waitEngine = new WaitEngine();
+	private long scriptTimeout = -1;
+	private long idleTimerDelay = DEFAULT_IDLE_TIMER_DELAY;
+	private boolean idleTracking = true;
+	private long implicitTimeout = WebDriverConfigurer.DEFAULT_IMPLICIT_TIMEOUT;
 	private WebDriver driver;
+	private WebDriverPool driverPool;
+	private boolean leased;
+	private Thread leaseOwner;
+	private String beanName;
+	private BeanFactory beanFactory;
+	private TakesScreenshot screenshotDriver;
+	private WebDriver screenshotDriverSource;
+	private LocatorCache locatorCache = new LocatorCache();
+	private final AtomicLong navigationEpoch = new AtomicLong();
+	private boolean elementCacheEnabled = false;
+	private final Map<String, WebElement> elementCache = new LinkedHashMap<String, WebElement>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, WebElement> eldest) {
+			return size() > MAX_CACHED_ELEMENTS;
+		}
+	};
 	protected Logger logger = LoggerFactory.getLogger(getClass());
 	
-	@Autowired
+	/**
+	 * WebDriver instance to control. Not needed if a driver pool is set.
+	 * 
+	 * @param driver
+	 *            the selenium WebDriver to set
+	 */
+	@Autowired(required = false)
 	public void setDriver(WebDriver driver) {
 		this.driver = driver;
 	}
 	
+	/**
+	 * Pool to lease the driver from. The driver is leased on first use and
+	 * returned by {@link #releaseDriver()} or when the bean is destroyed.
+	 * The lease belongs to the thread which took it, a controller with a
+	 * driver pool must be declared in {@link com.pageobject.component.BrowserScope}.
+	 * 
+	 * @param driverPool
+	 *            the driver pool to set
+	 */
+	@Autowired(required = false)
+	public void setDriverPool(WebDriverPool driverPool) {
+		this.driverPool = driverPool;
+	}
+	
+	/**
+	 * @see org.springframework.beans.factory.BeanNameAware#setBeanName(java.lang.String)
+	 */
+	public void setBeanName(String beanName) {
+		this.beanName = beanName;
+	}
+	
+	/**
+	 * @see org.springframework.beans.factory.BeanFactoryAware#setBeanFactory(org.springframework.beans.factory.BeanFactory)
+	 */
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+	
+	/**
+	 * Checks that a controller with a driver pool is declared in
+	 * {@link com.pageobject.component.BrowserScope}. The lease is not
+	 * synchronized, a controller shared by threads would hand one driver to
+	 * all of them.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the controller has a driver pool and another scope
+	 */
+	public void afterPropertiesSet() {
+		if (driverPool == null || !(beanFactory instanceof ConfigurableListableBeanFactory)) {
+			return;
+		}
+		ConfigurableListableBeanFactory listableBeanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		if (!listableBeanFactory.containsBeanDefinition(beanName)) {
+			return;
+		}
+		String scope = listableBeanFactory.getMergedBeanDefinition(beanName).getScope();
+		if (!BROWSER_SCOPE.equals(scope)) {
+			throw new IllegalStateException("Browser controller '" + beanName + "' leases drivers from a pool"
+					+ " and must be declared in scope '" + BROWSER_SCOPE + "', not '" + scope + "'");
+		}
+	}
+	
+	/**
+	 * Returns the controlled driver, leasing it from the pool if needed.
+	 * 
+	 * @return the WebDriver
+	 * @throws IllegalStateException
+	 *             if there is neither driver nor driver pool set, or if the
+	 *             driver was leased by another thread
+	 */
 	public WebDriver getDriver() {
+		if (driver == null) {
+			if (driverPool == null) {
+				throw new IllegalStateException("Neither WebDriver nor WebDriverPool is set");
+			}
+			driver = driverPool.borrowDriver();
+			leased = true;
+			leaseOwner = Thread.currentThread();
+		} else if (leased && leaseOwner != Thread.currentThread()) {
+			throw new IllegalStateException("WebDriver leased by thread " + leaseOwner.getName() + " used by thread "
+					+ Thread.currentThread().getName() + ", the browser controller must be declared in scope '"
+					+ BROWSER_SCOPE + "'");
+		}
 		return driver;
 	}
 	
+	/**
+	 * Returns the leased driver to the pool. A new driver is leased on next
+	 * use. Does nothing if the driver was not leased from a pool.
+	 */
+	public void releaseDriver() {
+		if (!leased) {
+			return;
+		}
+		invalidateElementCache();
+		WebDriver leasedDriver = driver;
+		driver = null;
+		leased = false;
+		leaseOwner = null;
+		scriptTimeout = -1;
+		driverPool.returnDriver(leasedDriver);
+	}
+	
+	/**
+	 * Returns the leased driver to the pool when the bean is destroyed.
+	 */
+	public void destroy() {
+		releaseDriver();
+	}
+	
+	/**
+	 * Implicit timeout configured for the driver. Restored after presence
+	 * checks which cannot be evaluated by JavaScript.
+	 * 
+	 * @param implicitTimeout
+	 *            the timeout in milliseconds
+	 * @see WebDriverConfigurer#setImplicitTimeout(long)
+	 */
+	@Value("${selenium.implicit.timeout:3000}")
+	public void setImplicitTimeout(long implicitTimeout) {
+		this.implicitTimeout = implicitTimeout;
+	}
+	
+	/**
+	 * Longest timer delay considered as pending work by
+	 * {@link #waitForIdle(long, long)}. Longer timers, e.g. periodic refresh,
+	 * are ignored. Default is 1000 ms.
+	 * 
+	 * @param idleTimerDelay
+	 *            the delay in milliseconds
+	 */
+	@Value("${selenium.idle.timer.delay:1000}")
+	public void setIdleTimerDelay(long idleTimerDelay) {
+		this.idleTimerDelay = idleTimerDelay;
+	}
+	
+	/**
+	 * Instruments the page for {@link #waitForIdle(long, long)} right after
+	 * {@link #open(String)}, {@link #waitForPageToLoad(long)} and
+	 * {@link #click(String)}, so requests started by the page later are
+	 * tracked. Otherwise the page is instrumented by the first wait only.
+	 * Costs one script call per these commands, disable it if
+	 * {@link #waitForIdle(long, long)} is not used. Enabled by default.
+	 * 
+	 * @param idleTracking
+	 *            whether to instrument every loaded page
+	 */
+	@Value("${selenium.idle.tracking:true}")
+	public void setIdleTracking(boolean idleTracking) {
+		this.idleTracking = idleTracking;
+	}
+	
+	/**
+	 * Engine used for all waits of this controller.
+	 * 
+	 * @param waitEngine
+	 *            the wait engine to use
+	 */
+	public void setWaitEngine(WaitEngine waitEngine) {
+		this.waitEngine = waitEngine;
+	}
+	
+	/**
+	 * Returns engine used for all waits, e.g. to inspect wait statistics.
+	 * 
+	 * @return the wait engine
+	 */
+	public WaitEngine getWaitEngine() {
+		return waitEngine;
+	}
+	
+	/**
+	 * Cache of compiled locators.
+	 * 
+	 * @param locatorCache
+	 *            the locator cache to use
+	 */
+	public void setLocatorCache(LocatorCache locatorCache) {
+		this.locatorCache = locatorCache;
+	}
+	
+	/**
+	 * Returns cache of compiled locators, e.g. to inspect its hit and miss
+	 * counters.
+	 * 
+	 * @return the locator cache
+	 */
+	public LocatorCache getLocatorCache() {
+		return locatorCache;
+	}
+	
 	/**
 	 * Private method to obtain the locator used by Web Driver to locate web
-	 * elements.
+	 * elements. Compiled locators are kept in {@link LocatorCache}.
 	 * 
 	 * @param locator
 	 *            String representation of the locator.
@@ -52,58 +285,171 @@ public class WebDriverBrowserImpl implements BrowserController{
 	 *         based on the string representation.
 	 */
 	private By locatorPreprocessor(String locator) {
-		By byLocator = null;
-		String identifier;
-		int typeIndex = locator.indexOf("=");
-		
-		identifier = locator.substring(typeIndex + 1);
-		
-		if(locator.startsWith("id=") || typeIndex == -1) {
-			byLocator = By.id(identifier);
-		} else if (locator.startsWith("name=")) {
-			byLocator = By.name(identifier);
-		} else if (locator.startsWith("css=")) {
-			byLocator = By.cssSelector(identifier);
-		} else if (locator.startsWith("xpath=")) {
-			byLocator = By.xpath(identifier);
-		} else if (locator.startsWith("text=")) {
-			byLocator = By.linkText(identifier);
-		} else {
-			logger.error("Locator type was not recognized. Locator type: "
-					+ locator.substring(0, typeIndex) + ". Identifier: "
-					+ identifier + ".");
+		return locatorCache.getLocator(locator);
+	}
+
+	/**
+	 * Enables cache of found web elements. Elements found by a locator are
+	 * reused until the page changes by {@link #open(String)}, a window switch
+	 * or {@link #closePage()}. A cached element which turned stale is looked
+	 * up once more. Disabled by default.
+	 * 
+	 * @param elementCacheEnabled
+	 *            whether to cache found web elements
+	 */
+	@Value("${selenium.element.cache:false}")
+	public void setElementCacheEnabled(boolean elementCacheEnabled) {
+		this.elementCacheEnabled = elementCacheEnabled;
+		invalidateElementCache();
+	}
+	
+	public boolean isElementCacheEnabled() {
+		return elementCacheEnabled;
+	}
+	
+	/**
+	 * Forgets all cached web elements, starting a new page epoch. Call it
+	 * when the page changes by other means than this controller knows about.
+	 */
+	public void invalidateElementCache() {
+		synchronized (elementCache) {
+			elementCache.clear();
+		}
+		pageChanged();
+	}
+	
+	public long getNavigationEpoch() {
+		return navigationEpoch.get();
+	}
+	
+	/**
+	 * Starts a new navigation epoch, keeping cached elements, which are
+	 * checked for staleness when used.
+	 */
+	private void pageChanged() {
+		navigationEpoch.incrementAndGet();
+	}
+	
+	private static void count(String method, String locator) {
+		CommandCounter.record(method, locator);
+	}
+	
+	/**
+	 * Finds a web element, reusing the cached one if element cache is enabled.
+	 * 
+	 * @param locator
+	 *            String representation of the locator.
+	 * @return found web element
+	 */
+	private WebElement findElement(String locator) {
+		By byLocator = locatorPreprocessor(locator);
+		if (!elementCacheEnabled) {
+			return getDriver().findElement(byLocator);
 		}
 		
-		return byLocator;
+		WebElement element;
+		synchronized (elementCache) {
+			element = elementCache.get(locator);
+		}
+		if (element == null) {
+			element = getDriver().findElement(byLocator);
+			synchronized (elementCache) {
+				elementCache.put(locator, element);
+			}
+		}
+		return element;
+	}
+	
+	/**
+	 * Looks up a web element again after the cached one turned stale.
+	 * 
+	 * @param locator
+	 *            String representation of the locator.
+	 * @param e
+	 *            the exception thrown when using the cached element
+	 * @return freshly found web element
+	 * @throws StaleElementReferenceException
+	 *             if element cache is disabled, the element was not cached
+	 */
+	private WebElement refindElement(String locator, StaleElementReferenceException e) {
+		if (!elementCacheEnabled) {
+			throw e;
+		}
+		logger.debug("Cached element '{}' is stale, looking it up again", locator);
+		synchronized (elementCache) {
+			elementCache.remove(locator);
+		}
+		return findElement(locator);
 	}
 
 	public void open(String url) {
-		driver.get(url);
+		count("open", null);
+		openUrl(url);
+	}
+	
+	private void openUrl(String url) {
+		invalidateElementCache();
+		getDriver().get(url);
+		trackIdle();
+	}
+	
+	/**
+	 * Installs the instrumentation of {@link #waitForIdle(long, long)} into
+	 * the current page if idle tracking is enabled.
+	 */
+	private void trackIdle() {
+		if (!idleTracking) {
+			return;
+		}
+		try {
+			((JavascriptExecutor) getDriver()).executeScript(IdleScripts.INSTALL_SCRIPT, idleTimerDelay);
+		} catch (WebDriverException e) {
+			logger.debug("Unable to instrument page for idle waits: {}", e.getMessage());
+		}
 	}
 	
 	public void type(String locator, String value) {
-		By byLocator = locatorPreprocessor(locator);
-		
-		WebElement element = driver.findElement(byLocator); 
-		element.sendKeys(value);
+		count("type", locator);
+		WebElement element = findElement(locator);
+		try {
+			element.sendKeys(value);
+		} catch (StaleElementReferenceException e) {
+			refindElement(locator, e).sendKeys(value);
+		}
 	}
 	
 	public void clear(String locator) {
-		By byLocator = locatorPreprocessor(locator);
-		
-		WebElement element = driver.findElement(byLocator);
-		element.clear();
+		count("clear", locator);
+		WebElement element = findElement(locator);
+		try {
+			element.clear();
+		} catch (StaleElementReferenceException e) {
+			refindElement(locator, e).clear();
+		}
 	}
 
 	public void click(String locator) {
-		By byLocator = locatorPreprocessor(locator);
-		driver.findElement(byLocator).click();
+		count("click", locator);
+		pageChanged();
+		WebElement element = findElement(locator);
+		try {
+			element.click();
+		} catch (StaleElementReferenceException e) {
+			refindElement(locator, e).click();
+		}
+		trackIdle();
 	}
 	
 	public void select(String locator, String option) {
-		By byLocator = locatorPreprocessor(locator);
-		WebElement element = driver.findElement(byLocator);
-		Select select = new Select(element);
+		count("select", locator);
+		pageChanged();
+		WebElement element = findElement(locator);
+		Select select;
+		try {
+			select = new Select(element);
+		} catch (StaleElementReferenceException e) {
+			select = new Select(refindElement(locator, e));
+		}
 		
 		int typeIndex = option.indexOf("=");
 		String val = option.substring(typeIndex + 1);
@@ -124,25 +470,127 @@ public class WebDriverBrowserImpl implements BrowserController{
 	}
 
 	public void waitForPageToLoad(long timeout) {
-		long waitingFor = 0;
-
-		while(!isPageLoaded()) {
-			waitFor(waitStep);
-			waitingFor += waitStep;
-			if(waitingFor >= timeout) {
-				logger.error("The page wasn't loaded yet. Time waited: " + waitingFor);
+		count("waitForPageToLoad", null);
+		waitEngine.waitUntil(new WaitCondition() {
+			public boolean isSatisfied() {
+				return pageLoaded();
 			}
-		}
+			
+			@Override
+			public String toString() {
+				return "page to load";
+			}
+		}, timeout);
+		trackIdle();
 	}
 
 	public void waitForElementPresent(String locator, long timeout) {
-		By byLocator = locatorPreprocessor(locator);
+		count("waitForElementPresent", locator);
+		pollForElement(locator, timeout);
+	}
+	
+	private void pollForElement(final String locator, long timeout) {
+		waitEngine.waitUntil(new WaitCondition() {
+			public boolean isSatisfied() {
+				return elementPresentNow(locator);
+			}
+			
+			@Override
+			public String toString() {
+				return "element '" + locator + "' to be present";
+			}
+		}, TimeUnit.SECONDS.toMillis(timeout));
+	}
+	
+	/**
+	 * Installs a MutationObserver by an asynchronous script. Falls back to
+	 * {@link #waitForElementPresent(String, long)} if the locator cannot be
+	 * evaluated by JavaScript, the browser does not support MutationObserver
+	 * or the page was unloaded during the wait.
+	 */
+	public void waitForElementPresentInBrowser(String locator, long timeout) {
+		count("waitForElementPresentInBrowser", locator);
+		String type = LocatorScripts.getType(locator);
+		if (type == null) {
+			pollForElement(locator, timeout);
+			return;
+		}
+		
+		long timeoutMillis = TimeUnit.SECONDS.toMillis(timeout);
+		long start = System.currentTimeMillis();
+		Object present;
+		try {
+			ensureScriptTimeout(timeoutMillis);
+			present = ((JavascriptExecutor) getDriver()).executeAsyncScript(LocatorScripts.WAIT_FOR_PRESENT_SCRIPT,
+					type, LocatorScripts.getIdentifier(locator), timeoutMillis);
+		} catch (TimeoutException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			logger.debug("Waiting for '{}' in browser failed, polling instead: {}", locator, e.getMessage());
+			present = null;
+		}
 		
-		WebDriverWait wait = new WebDriverWait(driver, timeout);
-		wait.until(ExpectedConditions.presenceOfElementLocated(byLocator));
+		if (present == null) {
+			long remaining = Math.max(0, timeoutMillis - (System.currentTimeMillis() - start));
+			pollForElement(locator, TimeUnit.MILLISECONDS.toSeconds(remaining + 999));
+		} else if (!Boolean.TRUE.equals(present)) {
+			throw new TimeoutException("Timed out after " + timeoutMillis + " ms waiting for element '"
+					+ locator + "' to be present");
+		}
+	}
+	
+	/**
+	 * Makes sure asynchronous scripts may run at least the given time.
+	 * 
+	 * @param timeout
+	 *            the time in milliseconds the script has to finish in
+	 */
+	private void ensureScriptTimeout(long timeout) {
+		long required = timeout + ASYNC_SCRIPT_TIMEOUT_MARGIN;
+		if (scriptTimeout < required) {
+			getDriver().manage().timeouts().setScriptTimeout(required, TimeUnit.MILLISECONDS);
+			scriptTimeout = required;
+		}
+	}
+	
+	/**
+	 * Waits in the browser within a single asynchronous script call,
+	 * instrumenting the page first if it is not instrumented yet, see
+	 * {@link #setIdleTracking(boolean)}. Requests started before the page
+	 * was instrumented are not seen. If the page is unloaded during the wait,
+	 * the new page is instrumented and waited for in the remaining time.
+	 */
+	public void waitForIdle(long quietPeriod, long timeout) {
+		count("waitForIdle", null);
+		long deadline = System.currentTimeMillis() + timeout;
+		int attempt = 0;
+		while (true) {
+			attempt++;
+			long remaining = Math.max(0, deadline - System.currentTimeMillis());
+			Object idle;
+			try {
+				ensureScriptTimeout(remaining);
+				idle = ((JavascriptExecutor) getDriver()).executeAsyncScript(IdleScripts.WAIT_FOR_IDLE_SCRIPT,
+						quietPeriod, remaining, idleTimerDelay);
+			} catch (TimeoutException e) {
+				throw e;
+			} catch (WebDriverException e) {
+				if (attempt >= MAX_IDLE_WAIT_ATTEMPTS || System.currentTimeMillis() >= deadline) {
+					throw e;
+				}
+				logger.debug("Page changed while waiting for it to be idle: {}", e.getMessage());
+				continue;
+			}
+			
+			if (!Boolean.TRUE.equals(idle)) {
+				throw new TimeoutException("Timed out after " + timeout + " ms waiting for page to be idle");
+			}
+			return;
+		}
 	}
 	
 	public void waitFor(long time) {
+		count("waitFor", null);
 		try {
 			Thread.sleep(time);
 		} catch (InterruptedException ie) {
@@ -151,23 +599,41 @@ public class WebDriverBrowserImpl implements BrowserController{
 		}
 	}
 	
-	public void waitUntil(String script, long timeout) {
-		while(!(executeScript("return " + script).toString()).equalsIgnoreCase("true")) {
-			waitFor(waitStep);
-		}
+	public void waitUntil(final String script, long timeout) {
+		count("waitUntil", null);
+		waitEngine.waitUntil(new WaitCondition() {
+			public boolean isSatisfied() {
+				return String.valueOf(evaluateScript("return " + script)).equalsIgnoreCase("true");
+			}
+			
+			@Override
+			public String toString() {
+				return "script '" + script + "' to return true";
+			}
+		}, timeout);
+	}
+	
+	public void waitUntil(WaitCondition condition, long timeout) {
+		count("waitUntil", null);
+		waitEngine.waitUntil(condition, timeout);
 	}
 	
 
 	public boolean isElementEnabled(String locator) {
-		By byLocator = locatorPreprocessor(locator);
-		WebElement element = driver.findElement(byLocator);
-		return element.isEnabled();
+		count("isElementEnabled", locator);
+		WebElement element = findElement(locator);
+		try {
+			return element.isEnabled();
+		} catch (StaleElementReferenceException e) {
+			return refindElement(locator, e).isEnabled();
+		}
 	}
 
 	public boolean isElementPresent(String locator) {
+		count("isElementPresent", locator);
 		By byLocator = locatorPreprocessor(locator);
 		
-		List<WebElement> element = driver.findElements(byLocator);
+		List<WebElement> element = getDriver().findElements(byLocator);
    		if(element.size() > 0) {
    			return true;
    		} else {
@@ -175,140 +641,291 @@ public class WebDriverBrowserImpl implements BrowserController{
    		}
 	}
 
+	/**
+	 * Evaluates the locator by JavaScript in one round trip. Link text
+	 * locators are looked up by the driver with the implicit wait suspended.
+	 */
+	public boolean isElementPresentNow(String locator) {
+		count("isElementPresentNow", locator);
+		return elementPresentNow(locator);
+	}
+	
+	private boolean elementPresentNow(String locator) {
+		String type = LocatorScripts.getType(locator);
+		if (type != null && !LocatorScripts.TEXT.equals(type)) {
+			Object present = ((JavascriptExecutor) getDriver()).executeScript(LocatorScripts.IS_PRESENT_SCRIPT,
+					type, LocatorScripts.getIdentifier(locator));
+			return Boolean.TRUE.equals(present);
+		}
+		
+		By byLocator = locatorPreprocessor(locator);
+		Timeouts timeouts = getDriver().manage().timeouts();
+		timeouts.implicitlyWait(0, TimeUnit.MILLISECONDS);
+		try {
+			return !getDriver().findElements(byLocator).isEmpty();
+		} finally {
+			timeouts.implicitlyWait(implicitTimeout, TimeUnit.MILLISECONDS);
+		}
+	}
+
 	public void closePage() {
-		driver.close();
+		count("closePage", null);
+		closeWindow();
+	}
+	
+	private void closeWindow() {
+		invalidateElementCache();
+		getDriver().close();
 	}
 
 	public void selectWindow(String windowIdentifier) {
+		count("selectWindow", null);
+		switchToWindow(windowIdentifier);
+	}
+	
+	private void switchToWindow(String windowIdentifier) {
+		invalidateElementCache();
 		int typeIndex = windowIdentifier.indexOf("=");
 		String identifier = windowIdentifier.substring(typeIndex + 1);
 		
 		if(windowIdentifier.startsWith("title=") || typeIndex == -1) {
-			selectWindowByTitle(identifier);
+			switchToWindowByTitle(identifier);
 		} else if (windowIdentifier.startsWith("name=")) {
-			selectWindowByName(identifier);
+			switchToWindowByName(identifier);
 		} else {
 			logger.warn("The window identifier type was not recognized. Trying to use the defualt method");
-			driver.switchTo().window(windowIdentifier);
+			getDriver().switchTo().window(windowIdentifier);
 		}
 
 	}
 	
 	public void selectWindowByTitle(String title) {
-		for(String handle : driver.getWindowHandles()) {
-			driver.switchTo().window(handle.toString());
-			if(driver.getTitle().contains(title)) break;
+		count("selectWindowByTitle", null);
+		switchToWindowByTitle(title);
+	}
+	
+	private void switchToWindowByTitle(String title) {
+		invalidateElementCache();
+		for(String handle : getDriver().getWindowHandles()) {
+			getDriver().switchTo().window(handle.toString());
+			if(getDriver().getTitle().contains(title)) break;
 		}
 	}
 	
 	public void selectWindowByName(String windowName) {
-		for (String handle : driver.getWindowHandles()) {
-			driver.switchTo().window(handle);
-		    String name = executeScript("return document.name").toString();
+		count("selectWindowByName", null);
+		switchToWindowByName(windowName);
+	}
+	
+	private void switchToWindowByName(String windowName) {
+		invalidateElementCache();
+		for (String handle : getDriver().getWindowHandles()) {
+			getDriver().switchTo().window(handle);
+		    String name = evaluateScript("return document.name").toString();
 		    if(name.contains(windowName)) break;
 		}
 	}
 
 	public void captureScreenshot(String path) throws IOException {
-		WebDriver screenshotDriver = new Augmenter().augment(driver);
-		FileOutputStream out = new FileOutputStream(path);
-		byte[] screenshot = ((TakesScreenshot) screenshotDriver).getScreenshotAs(OutputType.BYTES);
-		out.write(screenshot);
-		out.close();
+		count("captureScreenshot", null);
+		byte[] screenshot = takeScreenshot();
+		FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(screenshot);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+	
+	/**
+	 * The driver is augmented once and reused as long as the same driver is
+	 * controlled.
+	 */
+	public byte[] getScreenshot() {
+		count("getScreenshot", null);
+		return takeScreenshot();
+	}
+	
+	private byte[] takeScreenshot() {
+		WebDriver currentDriver = getDriver();
+		if (screenshotDriver == null || screenshotDriverSource != currentDriver) {
+			screenshotDriver = currentDriver instanceof TakesScreenshot
+					? (TakesScreenshot) currentDriver
+					: (TakesScreenshot) new Augmenter().augment(currentDriver);
+			screenshotDriverSource = currentDriver;
+		}
+		return screenshotDriver.getScreenshotAs(OutputType.BYTES);
 	}
 
 	public int getElementCount(String locator) {
+		count("getElementCount", locator);
 		By byLocator = locatorPreprocessor(locator);
-		return driver.findElements(byLocator).size();
+		return getDriver().findElements(byLocator).size();
+	}
+
+	/**
+	 * Counts by JavaScript in one round trip, like
+	 * {@link #isElementPresentNow(String)}. Link text locators are looked up
+	 * by the driver with the implicit wait suspended.
+	 */
+	public int getElementCountNow(String locator) {
+		count("getElementCountNow", locator);
+		String type = LocatorScripts.getType(locator);
+		if (type != null && !LocatorScripts.TEXT.equals(type)) {
+			Object result = ((JavascriptExecutor) getDriver()).executeScript(LocatorScripts.COUNT_SCRIPT,
+					type, LocatorScripts.getIdentifier(locator));
+			return result instanceof Number ? ((Number) result).intValue() : 0;
+		}
+		
+		By byLocator = locatorPreprocessor(locator);
+		Timeouts timeouts = getDriver().manage().timeouts();
+		timeouts.implicitlyWait(0, TimeUnit.MILLISECONDS);
+		try {
+			return getDriver().findElements(byLocator).size();
+		} finally {
+			timeouts.implicitlyWait(implicitTimeout, TimeUnit.MILLISECONDS);
+		}
 	}
 
 	public String getElementValue(String locator) {
-		return getElementAttribute(locator, "value");
+		count("getElementValue", locator);
+		return readAttribute(locator, "value");
 	}
 	
 	public String getElementAttribute(String locator, String attributeName) {
-		By byLocator = locatorPreprocessor(locator);
-		
-		return driver.findElement(byLocator).getAttribute(attributeName);
+		count("getElementAttribute", locator);
+		return readAttribute(locator, attributeName);
+	}
+	
+	private String readAttribute(String locator, String attributeName) {
+		WebElement element = findElement(locator);
+		try {
+			return element.getAttribute(attributeName);
+		} catch (StaleElementReferenceException e) {
+			return refindElement(locator, e).getAttribute(attributeName);
+		}
 	}
 	
 
 	public String getText(String locator) {
-		By byLocator = locatorPreprocessor(locator);
-		return driver.findElement(byLocator).getText();
+		count("getText", locator);
+		WebElement element = findElement(locator);
+		try {
+			return element.getText();
+		} catch (StaleElementReferenceException e) {
+			return refindElement(locator, e).getText();
+		}
 	}
 
 	public String getTitle() {
-		return driver.getTitle();
+		count("getTitle", null);
+		return getDriver().getTitle();
 	}
 	
 	public String getPageState() {
-		return executeScript("return document.readyState").toString();
+		count("getPageState", null);
+		return readPageState();
+	}
+	
+	private String readPageState() {
+		return evaluateScript("return document.readyState").toString();
 	}
 	
 	public boolean isPageLoaded() {
-		if (getPageState().equalsIgnoreCase("complete")) return true;
+		count("isPageLoaded", null);
+		return pageLoaded();
+	}
+	
+	private boolean pageLoaded() {
+		if (readPageState().equalsIgnoreCase("complete")) return true;
 		return false;
 	}
 
 	public String[] getAllWindowNames() {
-		String current = driver.getWindowHandle();
+		count("getAllWindowNames", null);
+		String current = getDriver().getWindowHandle();
 
 	    List<String> windowNames = new ArrayList<String>();
-	    for (String handle : driver.getWindowHandles()) {
-	      driver.switchTo().window(handle);
-	      windowNames.add(executeScript("return window.document.name").toString());
+	    for (String handle : getDriver().getWindowHandles()) {
+	      getDriver().switchTo().window(handle);
+	      windowNames.add(evaluateScript("return window.document.name").toString());
 	    }
 
-	    driver.switchTo().window(current);
+	    getDriver().switchTo().window(current);
 
 	    return windowNames.toArray(new String[windowNames.size()]);
 	}
 
 	public String[] getAllWindowTitles() {
-		String current = driver.getWindowHandle();
+		count("getAllWindowTitles", null);
+		String current = getDriver().getWindowHandle();
 
 	    List<String> windowTitles = new ArrayList<String>();
-	    for (String handle : driver.getWindowHandles()) {
-	      driver.switchTo().window(handle);
-	      windowTitles.add(driver.getTitle());
+	    for (String handle : getDriver().getWindowHandles()) {
+	      getDriver().switchTo().window(handle);
+	      windowTitles.add(getDriver().getTitle());
 	    }
 
-	    driver.switchTo().window(current);
+	    getDriver().switchTo().window(current);
 
 	    return windowTitles.toArray(new String[windowTitles.size()]);
 	}
 
 	public void closeAllBut(String windowIdentifier) {
+		count("closeAllBut", null);
+		invalidateElementCache();
 		String identifierType = windowIdentifier.substring(0, windowIdentifier.indexOf("="));
 		String identifier = windowIdentifier.substring(windowIdentifier.indexOf("=") + 1);
-		for (String handle : driver.getWindowHandles()) {
-			driver.switchTo().window(handle.toString());
+		for (String handle : getDriver().getWindowHandles()) {
+			getDriver().switchTo().window(handle.toString());
 			
-			String result = executeScript("return window.document." + identifierType).toString();
+			String result = evaluateScript("return window.document." + identifierType).toString();
 			if(!result.contains(identifier)) {
-				closePage();
+				closeWindow();
 			}
 		}
-		selectWindow(windowIdentifier);
+		switchToWindow(windowIdentifier);
 	}
 
 	public void openAndSelectWindow(String url) {
-		Set<String> windowsBefore = driver.getWindowHandles();
-		open(url);
-		Set<String> windowsAfter = driver.getWindowHandles();
+		count("openAndSelectWindow", null);
+		invalidateElementCache();
+		Set<String> windowsBefore = getDriver().getWindowHandles();
+		openUrl(url);
+		Set<String> windowsAfter = getDriver().getWindowHandles();
 		windowsAfter.removeAll(windowsBefore);
 		
-		driver.switchTo().window(windowsAfter.iterator().next());
+		getDriver().switchTo().window(windowsAfter.iterator().next());
 		
 	}
 	
 	public Object executeScript(String script) {
-		return ((JavascriptExecutor) driver).executeScript(script);
+		count("executeScript", null);
+		return evaluateScript(script);
+	}
+	
+	public Object executeScript(String script, Object... args) {
+		count("executeScript", null);
+		return ((JavascriptExecutor) getDriver()).executeScript(script, args);
+	}
+	
+	/**
+	 * Executes a script on behalf of another command, without counting it.
+	 * 
+	 * @param script script
+	 * @return an object containing data returned by javascript
+	 */
+	private Object evaluateScript(String script) {
+		return ((JavascriptExecutor) getDriver()).executeScript(script);
 	}
 
 	public String getPageSource() {
-		return driver.getPageSource();
+		count("getPageSource", null);
+		return getDriver().getPageSource();
 	}
 	
 }
@@ -19,6 +19,9 @@ import org.springframework.beans.factory.annotation.Value;
  * the window. Reimplement or extend it if you need other configurations to be
  * done.
  * 
+ * <p>When drivers are leased from {@link WebDriverPool}, the pool applies
+ * {@link #configure(WebDriver)} to every leased instance.
+ * 
  * @author Pavel Muller
  * @version $Revision: 102464 $
  */
@@ -62,7 +65,18 @@ public class WebDriverConfigurer {
 		this.implicitTimeout = timeout;
 	}
 	
+	/**
+	 * Configures the driver set by {@link #setDriver(WebDriver)}.
+	 */
 	public void configure() {
+		configure(driver);
+	}
+	
+	/**
+	 * Configures a given driver.
+	 * @param driver the selenium WebDriver to configure
+	 */
+	public void configure(WebDriver driver) {
 		logger.info("Page load wait set up to " + timeout + " ms");
 		driver.manage().timeouts().pageLoadTimeout(timeout, TimeUnit.MILLISECONDS);
 		driver.manage().timeouts().implicitlyWait(implicitTimeout, TimeUnit.MILLISECONDS);
@@ -0,0 +1,25 @@
+package com.pageobject.controller;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Creates new WebDriver instances for {@link WebDriverPool}.
+ *
+ * <pre>
+ * public class FirefoxDriverFactory implements WebDriverFactory {
+ *     public WebDriver createDriver() {
+ *         return new FirefoxDriver();
+ *     }
+ * }
+ * </pre>
+ */
+public interface WebDriverFactory {
+
+	/**
+	 * Starts a new browser session.
+	 *
+	 * @return new WebDriver instance, not configured yet
+	 */
+	public WebDriver createDriver();
+
+}
@@ -0,0 +1,295 @@
+package com.pageobject.controller;
+
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Pool of WebDriver instances reused across tests, so the browser start-up is
+ * paid only once per instance.
+ *
+ * <p>
+ * New instances are created by {@link WebDriverFactory}. The pool starts
+ * {@link #setMinSize(int)} instances when initialized and never leases more
+ * than {@link #setMaxSize(int)} instances at once. Each lease is configured
+ * by {@link WebDriverConfigurer#configure(WebDriver)} and every returned
+ * instance is reset by {@link #reset(WebDriver)}: extra windows are closed,
+ * cookies deleted and a blank page opened.
+ *
+ * <pre>
+ * &lt;bean id="driverPool" class="com.pageobject.controller.WebDriverPool"&gt;
+ *     &lt;property name="driverFactory"&gt;&lt;bean class="com.example.FirefoxDriverFactory"/&gt;&lt;/property&gt;
+ *     &lt;property name="configurer" ref="webDriverConfigurer"/&gt;
+ * &lt;/bean&gt;
+ * &lt;bean id="browser" class="com.pageobject.controller.WebDriverBrowserImpl"&gt;
+ *     &lt;property name="driverPool" ref="driverPool"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @see WebDriverBrowserImpl#setDriverPool(WebDriverPool)
+ */
+public class WebDriverPool implements InitializingBean, DisposableBean {
+
+	protected static final int DEFAULT_MIN_SIZE = 0;
+	protected static final int DEFAULT_MAX_SIZE = 4;
+	protected static final long DEFAULT_BORROW_TIMEOUT = 300000;
+	protected static final String BLANK_PAGE = "about:blank";
+
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private WebDriverFactory driverFactory;
+	private WebDriverConfigurer configurer;
+	private int minSize = DEFAULT_MIN_SIZE;
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private long borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+
+	private final LinkedBlockingDeque<WebDriver> idleDrivers = new LinkedBlockingDeque<WebDriver>();
+	private final AtomicInteger createdCount = new AtomicInteger();
+	private final AtomicInteger leasedCount = new AtomicInteger();
+	private Semaphore leases;
+	private volatile boolean closed;
+
+	/**
+	 * Factory starting new browser sessions.
+	 *
+	 * @param driverFactory
+	 *            the driver factory to set
+	 */
+	public void setDriverFactory(WebDriverFactory driverFactory) {
+		this.driverFactory = driverFactory;
+	}
+
+	/**
+	 * Configurer applied to every leased driver. Optional.
+	 *
+	 * @param configurer
+	 *            the configurer to set
+	 */
+	public void setConfigurer(WebDriverConfigurer configurer) {
+		this.configurer = configurer;
+	}
+
+	/**
+	 * Number of instances started when the pool is initialized. Default is 0.
+	 * Mapped to configuration property: selenium.pool.min
+	 *
+	 * @param minSize
+	 *            the minimal size to set
+	 */
+	@Value("${selenium.pool.min:0}")
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	/**
+	 * Maximum number of instances leased at once. Default is 4. Mapped to
+	 * configuration property: selenium.pool.max
+	 *
+	 * @param maxSize
+	 *            the maximal size to set
+	 */
+	@Value("${selenium.pool.max:4}")
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * How long to wait for a free instance when all are leased. Default is
+	 * 300000 (ie. 5 minutes).
+	 *
+	 * @param borrowTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+	}
+
+	/**
+	 * Starts {@link #setMinSize(int)} browser instances.
+	 */
+	public void afterPropertiesSet() {
+		if (driverFactory == null) {
+			throw new IllegalStateException("WebDriverFactory is not set");
+		}
+		if (maxSize < 1 || minSize > maxSize) {
+			throw new IllegalStateException("Invalid pool size, min: " + minSize + ", max: " + maxSize);
+		}
+		leases = new Semaphore(maxSize, true);
+
+		logger.info("Starting " + minSize + " WebDriver instances");
+		while (createdCount.get() < minSize) {
+			idleDrivers.offer(createDriver());
+		}
+	}
+
+	/**
+	 * Leases a configured driver, starting a new one if there is no idle
+	 * instance. Blocks while all instances are leased.
+	 *
+	 * @return driver for exclusive use until it is returned
+	 * @throws IllegalStateException
+	 *             if no instance becomes free within the borrow timeout or
+	 *             the pool is closed
+	 */
+	public WebDriver borrowDriver() {
+		if (closed || leases == null) {
+			throw new IllegalStateException("WebDriver pool is not initialized or already closed");
+		}
+		try {
+			if (!leases.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+				throw new IllegalStateException("No WebDriver instance available within " + borrowTimeout + " ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for WebDriver instance", e);
+		}
+
+		WebDriver driver = null;
+		try {
+			driver = idleDrivers.pollFirst();
+			if (driver == null) {
+				driver = createDriver();
+			}
+			if (configurer != null) {
+				configurer.configure(driver);
+			}
+			leasedCount.incrementAndGet();
+			return driver;
+		} catch (RuntimeException e) {
+			if (driver != null) {
+				quit(driver);
+			}
+			leases.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a leased driver to the pool. The driver is reset for the next
+	 * lease, it is closed if the reset fails.
+	 *
+	 * @param driver
+	 *            the driver obtained by {@link #borrowDriver()}
+	 */
+	public void returnDriver(WebDriver driver) {
+		try {
+			if (closed) {
+				quit(driver);
+				return;
+			}
+			try {
+				reset(driver);
+				idleDrivers.offerFirst(driver);
+			} catch (RuntimeException e) {
+				logger.warn("Unable to reset WebDriver instance, closing it", e);
+				quit(driver);
+			}
+		} finally {
+			leasedCount.decrementAndGet();
+			leases.release();
+		}
+	}
+
+	/**
+	 * Closes a leased driver which is broken instead of returning it.
+	 *
+	 * @param driver
+	 *            the driver obtained by {@link #borrowDriver()}
+	 */
+	public void invalidateDriver(WebDriver driver) {
+		try {
+			quit(driver);
+		} finally {
+			leasedCount.decrementAndGet();
+			leases.release();
+		}
+	}
+
+	/**
+	 * Prepares a returned driver for the next lease. Closes all windows but
+	 * one, deletes cookies and opens a blank page. Override it if you need
+	 * other clean up.
+	 *
+	 * @param driver
+	 *            the returned driver
+	 */
+	protected void reset(WebDriver driver) {
+		Set<String> handles = driver.getWindowHandles();
+		if (handles.size() > 1) {
+			String keep = handles.iterator().next();
+			for (String handle : handles) {
+				if (!handle.equals(keep)) {
+					driver.switchTo().window(handle);
+					driver.close();
+				}
+			}
+			driver.switchTo().window(keep);
+		}
+		driver.manage().deleteAllCookies();
+		driver.get(BLANK_PAGE);
+	}
+
+	private WebDriver createDriver() {
+		WebDriver driver = driverFactory.createDriver();
+		int created = createdCount.incrementAndGet();
+		logger.info("Started WebDriver instance " + created + "/" + maxSize);
+		return driver;
+	}
+
+	private void quit(WebDriver driver) {
+		createdCount.decrementAndGet();
+		try {
+			driver.quit();
+		} catch (RuntimeException e) {
+			logger.warn("Unable to quit WebDriver instance", e);
+		}
+	}
+
+	/**
+	 * Quits all idle drivers. Leased drivers are quit when returned.
+	 */
+	public void destroy() {
+		closed = true;
+		WebDriver driver;
+		while ((driver = idleDrivers.pollFirst()) != null) {
+			quit(driver);
+		}
+	}
+
+	/**
+	 * Returns number of running browser instances.
+	 *
+	 * @return instance count
+	 */
+	public int getSize() {
+		return createdCount.get();
+	}
+
+	/**
+	 * Returns number of idle browser instances.
+	 *
+	 * @return idle instance count
+	 */
+	public int getIdleCount() {
+		return idleDrivers.size();
+	}
+
+	/**
+	 * Returns number of leased browser instances.
+	 *
+	 * @return leased instance count
+	 */
+	public int getLeasedCount() {
+		return leasedCount.get();
+	}
+
+}
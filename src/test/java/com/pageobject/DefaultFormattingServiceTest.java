@@ -0,0 +1,147 @@
+package com.pageobject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class DefaultFormattingServiceTest {
+
+	private final DefaultFormattingService service = new DefaultFormattingService();
+
+	@Test
+	public void formatsDate() throws Exception {
+		assertEquals("17.10.2013", service.formatDate(date("2013-10-17")));
+		assertEquals("07.01.2013", service.formatDate(LocalDate.of(2013, 1, 7)));
+	}
+
+	@Test
+	public void parsesDateWithoutLeadingZeros() throws Exception {
+		assertEquals(date("2013-02-01"), service.parseDate("1.2.2013"));
+		assertEquals(LocalDate.of(2013, 2, 1), service.parseLocalDate("1.2.2013"));
+	}
+
+	@Test
+	public void parsesDateIgnoringTrailingText() throws Exception {
+		assertEquals(date("2013-02-01"), service.parseDate("01.02.2013 12:30"));
+	}
+
+	@Test
+	public void rollsOverDatesOutOfRange() throws Exception {
+		assertEquals(date("2013-03-02"), service.parseDate("30.02.2013"));
+		assertEquals(date("2013-02-01"), service.parseDate("32.01.2013"));
+		assertEquals(LocalDate.of(2012, 12, 31), service.parseLocalDate("00.01.2013"));
+	}
+
+	@Test
+	public void rejectsText() {
+		try {
+			service.parseDate("yesterday");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Error parsing date: yesterday", e.getMessage());
+		}
+	}
+
+	@Test
+	public void usesSimpleDateFormatPattern() throws Exception {
+		DefaultFormattingService weekDays = new DefaultFormattingService() {
+			@Override
+			protected String getDateFormat() {
+				return "u dd.MM.yyyy";
+			}
+		};
+		assertEquals("4 17.10.2013", weekDays.formatDate(date("2013-10-17")));
+		assertEquals(LocalDate.of(2013, 10, 17), weekDays.parseLocalDate("4 17.10.2013"));
+	}
+
+	@Test
+	public void readsDateFormatOnEveryCall() throws Exception {
+		final String[] pattern = {"dd.MM.yyyy"};
+		DefaultFormattingService changing = new DefaultFormattingService() {
+			@Override
+			protected String getDateFormat() {
+				return pattern[0];
+			}
+		};
+		assertEquals("17.10.2013", changing.formatDate(date("2013-10-17")));
+		pattern[0] = "yyyy-MM-dd";
+		assertEquals("2013-10-17", changing.formatDate(date("2013-10-17")));
+		assertEquals(date("2013-10-17"), changing.parseDate("2013-10-17"));
+	}
+
+	@Test
+	public void parsesStrictlyByDateFormatter() throws Exception {
+		DefaultFormattingService strict = new DefaultFormattingService() {
+			@Override
+			protected DateTimeFormatter getDateFormatter() {
+				return DateTimeFormatter.ofPattern("dd.MM.uuuu").withResolverStyle(ResolverStyle.STRICT);
+			}
+		};
+		assertEquals("17.10.2013", strict.formatDate(date("2013-10-17")));
+		assertEquals("07.01.2013", strict.formatDate(LocalDate.of(2013, 1, 7)));
+		assertEquals(date("2013-02-28"), strict.parseDate("28.02.2013"));
+		assertEquals(LocalDate.of(2013, 2, 28), strict.parseLocalDate("28.02.2013 12:30"));
+		try {
+			strict.parseDate("30.02.2013");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Error parsing date: 30.02.2013", e.getMessage());
+		}
+		try {
+			strict.parseLocalDate("1.2.2013");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Error parsing date: 1.2.2013", e.getMessage());
+		}
+	}
+
+	@Test
+	public void formatsNumber() {
+		assertEquals("12345,68", service.formatNumber(new BigDecimal("12345.678")));
+		assertEquals(",50", service.formatNumber(0.5));
+	}
+
+	@Test
+	public void parsesNumberWithGroupedDigits() {
+		assertEquals(new BigDecimal("12345.68"), service.parseNumber("12 345,68"));
+		assertEquals(new BigDecimal("-1.5"), service.parseNumber("-1,5"));
+	}
+
+	@Test
+	public void rejectsNumberWithTrailingText() {
+		try {
+			service.parseNumber("12,5 Kč");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Error parsing number: 12,5 Kč", e.getMessage());
+		}
+	}
+
+	@Test
+	public void readsDecimalSeparatorOnEveryCall() {
+		final char[] separator = {','};
+		DefaultFormattingService changing = new DefaultFormattingService() {
+			@Override
+			protected char getDecimalSeparator() {
+				return separator[0];
+			}
+		};
+		assertEquals("1,50", changing.formatNumber(1.5));
+		separator[0] = '.';
+		assertEquals("1.50", changing.formatNumber(1.5));
+		assertEquals(new BigDecimal("1.5"), changing.parseNumber("1.5"));
+	}
+
+	private static Date date(String isoDate) throws Exception {
+		return new SimpleDateFormat("yyyy-MM-dd").parse(isoDate);
+	}
+
+}